@@ -2,22 +2,36 @@ package dev.abdelrahman.rankcorex;
 
 import dev.abdelrahman.rankcorex.commands.RankCommand;
 import dev.abdelrahman.rankcorex.listeners.JoinListener;
+import dev.abdelrahman.rankcorex.managers.ExpirySweeper;
 import dev.abdelrahman.rankcorex.managers.RankManager;
+import dev.abdelrahman.rankcorex.managers.RanksFileWatcher;
 import dev.abdelrahman.rankcorex.managers.StorageManager;
 import dev.abdelrahman.rankcorex.managers.SyncManager;
 import dev.abdelrahman.rankcorex.placeholder.RankExpansion;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
 public final class Rankcorex extends JavaPlugin {
 
     private static Rankcorex instance;
     private StorageManager storageManager;
     private RankManager rankManager;
     private SyncManager syncManager;
+    private ExpirySweeper expirySweeper;
+    private RanksFileWatcher ranksFileWatcher;
     private RankExpansion placeholderExpansion;
 
-    private boolean debugMode;
+    // Swapped whole on reload, so a parse on another thread is never seen half done
+    private volatile FileConfiguration config;
+    private volatile boolean debugMode;
 
     @Override
     public void onEnable() {
@@ -30,6 +44,10 @@ public final class Rankcorex extends JavaPlugin {
         // Initialize debug mode
         debugMode = getConfig().getBoolean("debug", false);
 
+        // Coarse clock for placeholders and other display paths
+        TimeUtils.updateClock();
+        Bukkit.getScheduler().runTaskTimer(this, TimeUtils::updateClock, 1L, 1L);
+
         // Initialize storage FIRST
         storageManager = new StorageManager(this);
         if (!storageManager.initialize()) {
@@ -50,6 +68,14 @@ public final class Rankcorex extends JavaPlugin {
             }
         }
 
+        // Clean lapsed ranks out of storage in the background
+        expirySweeper = new ExpirySweeper(this);
+        expirySweeper.start();
+
+        // Optionally pick up ranks.yml edits without /rank reload
+        ranksFileWatcher = new RanksFileWatcher(this);
+        ranksFileWatcher.start();
+
         // Register commands
         getCommand("rank").setExecutor(new RankCommand(this));
 
@@ -68,6 +94,18 @@ public final class Rankcorex extends JavaPlugin {
             placeholderExpansion.unregister();
         }
 
+        if (expirySweeper != null) {
+            expirySweeper.stop();
+        }
+
+        if (ranksFileWatcher != null) {
+            ranksFileWatcher.stop();
+        }
+
+        if (rankManager != null) {
+            rankManager.shutdown();
+        }
+
         if (syncManager != null) {
             syncManager.shutdown();
         }
@@ -76,6 +114,8 @@ public final class Rankcorex extends JavaPlugin {
             storageManager.shutdown();
         }
 
+        TimeUtils.stopClock();
+
         log("RankCorex has been disabled!");
     }
 
@@ -92,6 +132,39 @@ public final class Rankcorex extends JavaPlugin {
         }
     }
 
+    /**
+     * Parse config.yml with the bundled defaults without making it active (any thread)
+     */
+    public FileConfiguration loadConfigFile() {
+        FileConfiguration loaded = YamlConfiguration.loadConfiguration(new File(getDataFolder(), "config.yml"));
+        InputStream defaults = getResource("config.yml");
+        if (defaults != null) {
+            loaded.setDefaults(YamlConfiguration.loadConfiguration(new InputStreamReader(defaults, StandardCharsets.UTF_8)));
+        }
+        return loaded;
+    }
+
+    /**
+     * Make a config parsed by loadConfigFile the active one (main thread)
+     */
+    public void applyConfig(FileConfiguration loaded) {
+        config = loaded;
+        debugMode = loaded.getBoolean("debug", false);
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        if (config == null) {
+            config = loadConfigFile();
+        }
+        return config;
+    }
+
+    @Override
+    public void reloadConfig() {
+        applyConfig(loadConfigFile());
+    }
+
     public void log(String message) {
         getLogger().info(message);
     }
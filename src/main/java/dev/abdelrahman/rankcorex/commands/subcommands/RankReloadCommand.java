@@ -2,9 +2,7 @@ package dev.abdelrahman.rankcorex.commands.subcommands;
 
 import dev.abdelrahman.rankcorex.Rankcorex;
 import dev.abdelrahman.rankcorex.utils.MessageUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 
 public class RankReloadCommand {
 
@@ -20,23 +18,21 @@ public class RankReloadCommand {
             return true;
         }
 
-        // Reload configuration
-        plugin.reloadConfig();
-
-        // Reload ranks
-        plugin.getRankManager().loadRanks();
-
-        // Reapply ranks to all online players
-        for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-            plugin.getRankManager().applyPlayerRank(onlinePlayer);
-        }
-
-        // Sync reload across network if enabled
-        if (plugin.getSyncManager() != null) {
-            plugin.getSyncManager().syncConfigReload();
-        }
-
-        sender.sendMessage(MessageUtils.colorize(MessageUtils.CONFIG_RELOADED));
+        // Parse config and ranks off the main thread; changed ranks are reapplied over several ticks
+        plugin.getRankManager().reloadRanksAsync(sender, true, loaded -> {
+            if (!loaded) {
+                sender.sendMessage(MessageUtils.colorize(MessageUtils.CONFIG_RELOAD_FAILED));
+                return;
+            }
+
+            // Sync reload across network if enabled
+            if (plugin.getSyncManager() != null) {
+                plugin.getSyncManager().syncConfigReload(plugin.getRankManager().getRegistry().getHash());
+            }
+
+            sender.sendMessage(MessageUtils.colorize(MessageUtils.CONFIG_RELOADED));
+            plugin.debug(plugin.getRankManager().getVersionInfo());
+        });
 
         return true;
     }
@@ -4,6 +4,7 @@ import dev.abdelrahman.rankcorex.Rankcorex;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
@@ -15,12 +16,22 @@ public class JoinListener implements Listener {
         this.plugin = plugin;
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        // Fetch the rank off the main thread while the player is still connecting
+        plugin.getRankManager().preloadPlayerRank(event.getUniqueId());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        plugin.debug("Player " + event.getPlayer().getName() + " joined, loading rank...");
+        plugin.debug("Player " + event.getPlayer().getName() + " joined, applying rank...");
 
-        // Load player rank asynchronously
-        plugin.getRankManager().loadPlayerRank(event.getPlayer());
+        // Attach the preloaded rank (falls back to an async load)
+        plugin.getRankManager().handlePlayerJoin(event.getPlayer());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -0,0 +1,144 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.RankData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects nametag and tablist changes and sends them once per tick.
+ * Several changes to the same player within a tick collapse into one update with the
+ * latest rank, and at most nametag.updates-per-tick players are updated per tick;
+ * the rest keep their place in line for the next tick.
+ */
+public class DisplayUpdatePipeline {
+
+    /**
+     * Performs the actual scoreboard/tablist update (main thread)
+     */
+    public interface Applier {
+        void apply(Player player, RankData rank, boolean nametag, boolean tablist);
+    }
+
+    private final Rankcorex plugin;
+    private final Applier applier;
+    private final Map<UUID, Update> pending = new LinkedHashMap<>();
+    private BukkitTask task;
+
+    public DisplayUpdatePipeline(Rankcorex plugin, Applier applier) {
+        this.plugin = plugin;
+        this.applier = applier;
+    }
+
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Queue a display update, merged with any update already waiting for this player
+     */
+    public void queue(Player player, RankData rank, boolean nametag, boolean tablist) {
+        if (!nametag && !tablist) {
+            return;
+        }
+
+        synchronized (pending) {
+            Update update = pending.get(player.getUniqueId());
+            if (update == null) {
+                pending.put(player.getUniqueId(), new Update(player, rank, nametag, tablist));
+            } else {
+                update.player = player;
+                update.rank = rank;
+                update.nametag |= nametag;
+                update.tablist |= tablist;
+            }
+        }
+    }
+
+    /**
+     * Drop a waiting update (player left)
+     */
+    public void cancel(UUID playerId) {
+        synchronized (pending) {
+            pending.remove(playerId);
+        }
+    }
+
+    public int getPending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Send up to the per-tick cap of waiting updates (main thread)
+     */
+    public void flush() {
+        int limit = plugin.getConfig().getInt("nametag.updates-per-tick", 100);
+        List<Update> batch;
+
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            int size = limit > 0 ? Math.min(limit, pending.size()) : pending.size();
+            batch = new ArrayList<>(size);
+            Iterator<Update> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < size) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        for (Update update : batch) {
+            if (!update.player.isOnline()) {
+                continue;
+            }
+            try {
+                applier.apply(update.player, update.rank, update.nametag, update.tablist);
+            } catch (Exception e) {
+                plugin.error("Failed to update display for " + update.player.getName() + ": " + e.getMessage());
+            }
+        }
+
+        int remaining = getPending();
+        if (remaining > 0) {
+            plugin.debug("Display updates: sent " + batch.size() + ", " + remaining + " waiting for the next tick");
+        }
+    }
+
+    private static final class Update {
+        private Player player;
+        private RankData rank;
+        private boolean nametag;
+        private boolean tablist;
+
+        private Update(Player player, RankData rank, boolean nametag, boolean tablist) {
+            this.player = player;
+            this.rank = rank;
+            this.nametag = nametag;
+            this.tablist = tablist;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Fires temporary rank expirations when they are due.
+ * A min-heap ordered by expiry epoch is checked once per tick: peeking costs O(1) and each
+ * expiration O(log n). Rescheduling leaves the old heap entry behind, it is skipped when polled.
+ * Main thread only.
+ */
+public class ExpiryScheduler {
+
+    private final Rankcorex plugin;
+    private final Consumer<UUID> expireAction;
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>();
+    // Current expiry per player, heap entries that don't match are stale
+    private final Map<UUID, Long> scheduled = new HashMap<>();
+    private BukkitTask task;
+
+    public ExpiryScheduler(Rankcorex plugin, Consumer<UUID> expireAction) {
+        this.plugin = plugin;
+        this.expireAction = expireAction;
+    }
+
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::processDue, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        heap.clear();
+        scheduled.clear();
+    }
+
+    /**
+     * Track a player's rank, or stop tracking it if the rank is permanent
+     */
+    public void schedule(PlayerRankData data) {
+        if (data == null) {
+            return;
+        }
+        if (data.isPermanent()) {
+            cancel(data.getPlayerId());
+            return;
+        }
+
+        long expiresAt = data.getTimeExpires();
+        Long previous = scheduled.put(data.getPlayerId(), expiresAt);
+        if (previous == null || previous != expiresAt) {
+            heap.add(new Entry(data.getPlayerId(), expiresAt));
+        }
+
+        // Keep stale entries from piling up when ranks are changed often
+        if (heap.size() > 64 && heap.size() > scheduled.size() * 2) {
+            compact();
+        }
+    }
+
+    public void cancel(UUID playerId) {
+        scheduled.remove(playerId);
+    }
+
+    /**
+     * Expire every rank whose time has come
+     */
+    public void processDue() {
+        long now = System.currentTimeMillis();
+
+        Entry next;
+        while ((next = heap.peek()) != null && next.expiresAt <= now) {
+            heap.poll();
+
+            Long current = scheduled.get(next.playerId);
+            if (current == null || current != next.expiresAt) {
+                continue; // Rescheduled or cancelled since
+            }
+            scheduled.remove(next.playerId);
+
+            try {
+                expireAction.accept(next.playerId);
+            } catch (Exception e) {
+                plugin.error("Failed to expire rank for " + next.playerId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    private void compact() {
+        heap.clear();
+        for (Map.Entry<UUID, Long> entry : scheduled.entrySet()) {
+            heap.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final UUID playerId;
+        private final long expiresAt;
+
+        private Entry(UUID playerId, long expiresAt) {
+            this.playerId = playerId;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(expiresAt, other.expiresAt);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically deletes lapsed ranks from storage, including players who never come back.
+ * Each run removes at most max-batches * batch-size rows, then hands them to the main
+ * thread so online players are demoted and other servers are told.
+ */
+public class ExpirySweeper {
+
+    private final Rankcorex plugin;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopped;
+    private BukkitTask task;
+
+    private final long intervalTicks;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public ExpirySweeper(Rankcorex plugin) {
+        this.plugin = plugin;
+        this.intervalTicks = Math.max(1L, plugin.getConfig().getLong("storage.expiry-sweep.interval", 300L)) * 20L;
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("storage.expiry-sweep.batch-size", 500));
+        this.maxBatches = Math.max(1, plugin.getConfig().getInt("storage.expiry-sweep.max-batches", 20));
+    }
+
+    public void start() {
+        if (!plugin.getConfig().getBoolean("storage.expiry-sweep.enabled", true)) {
+            plugin.debug("Expiry sweeper disabled");
+            return;
+        }
+
+        // First run shortly after startup clears whatever lapsed while the server was down
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sweep, 20L * 10, intervalTicks);
+        plugin.debug("Expiry sweeper started (every " + intervalTicks / 20 + "s, " + batchSize + " per batch)");
+    }
+
+    public void stop() {
+        stopped = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Remove expired ranks batch by batch (runs on an async scheduler thread)
+     */
+    private void sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return; // Previous run still going
+        }
+
+        int total = 0;
+        try {
+            for (int batch = 0; batch < maxBatches && !stopped; batch++) {
+                List<PlayerRankData> removed = plugin.getStorageManager().removeExpiredRanks(batchSize).get();
+                int deleted = removed.size();
+                total += deleted;
+
+                // Players with a newer unflushed rank keep it, nothing to demote
+                removed.removeIf(data -> plugin.getStorageManager().hasPendingWrite(data.getPlayerId()));
+                if (!removed.isEmpty()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        for (PlayerRankData data : removed) {
+                            plugin.getRankManager().handleExpiredInStorage(data);
+                        }
+                    });
+                }
+
+                // A short batch means storage has nothing more to delete
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+
+            if (total > 0) {
+                plugin.debug("Expiry sweep removed " + total + " lapsed ranks from storage");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.error("Expiry sweep failed: " + e.getCause().getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import org.bukkit.Bukkit;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.ScoreboardManager;
+import org.bukkit.scoreboard.Team;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the RankCoreX nametag teams. There is one team per distinct (weight, prefix, suffix)
+ * rendering, so ranks that look different never share a team and a team's prefix and suffix
+ * are only written when it is created. Also remembers which team each player was put in, so
+ * moving or removing a player touches only that team instead of scanning every team.
+ * Teams that become empty are unregistered, and empty rc_ teams left on the main scoreboard
+ * by earlier runs are cleared when the index is created.
+ */
+public class NametagTeamIndex {
+
+    private static final String TEAM_PREFIX = "rc_";
+
+    private final Rankcorex plugin;
+    private final Map<UUID, Membership> memberships = new ConcurrentHashMap<>();
+    // Team name per rendering; names stay stable for the whole session
+    private final Map<TeamKey, String> teamNames = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTeamId = new AtomicInteger();
+
+    public NametagTeamIndex(Rankcorex plugin) {
+        this.plugin = plugin;
+
+        // The main scoreboard is saved with the world, so teams from earlier runs come back
+        ScoreboardManager manager = Bukkit.getScoreboardManager();
+        if (manager != null) {
+            removeEmptyTeams(manager.getMainScoreboard());
+        }
+    }
+
+    /**
+     * Unregister empty rc_ teams left over from earlier runs or older versions
+     * @return number of teams removed
+     */
+    public int removeEmptyTeams(Scoreboard scoreboard) {
+        int removed = 0;
+        for (Team team : new ArrayList<>(scoreboard.getTeams())) {
+            if (!team.getName().startsWith(TEAM_PREFIX) || team.getSize() > 0) {
+                continue;
+            }
+            try {
+                team.unregister();
+                removed++;
+            } catch (IllegalStateException e) {
+                // Already unregistered
+            }
+        }
+
+        if (removed > 0) {
+            plugin.debug("Removed " + removed + " empty leftover nametag teams");
+        }
+        return removed;
+    }
+
+    /**
+     * The team for a rendering on a scoreboard, registered on first use.
+     * Names sort by weight (rc_0010_...) and stay within the 16 character limit.
+     */
+    public Team getTeam(Scoreboard scoreboard, int weight, String prefix, String suffix) {
+        int sortWeight = Math.max(0, Math.min(9999, weight));
+        TeamKey key = new TeamKey(sortWeight, prefix, suffix);
+        String name = teamNames.computeIfAbsent(key, k ->
+                TEAM_PREFIX + String.format("%04d", k.weight) + "_" + Integer.toString(nextTeamId.getAndIncrement(), 36));
+
+        Team team = scoreboard.getTeam(name);
+        if (team == null) {
+            team = scoreboard.registerNewTeam(name);
+            team.setPrefix(prefix);
+            team.setSuffix(suffix);
+            plugin.debug("Registered team " + name + " (prefix: '" + prefix + "', suffix: '" + suffix + "')");
+            return team;
+        }
+
+        // Left over from an earlier session with another rendering
+        if (!prefix.equals(team.getPrefix())) {
+            team.setPrefix(prefix);
+        }
+        if (!suffix.equals(team.getSuffix())) {
+            team.setSuffix(suffix);
+        }
+        return team;
+    }
+
+    /**
+     * Put a player's entry into the given team, leaving the team they were indexed in
+     */
+    public void move(UUID playerId, String entry, Team target) {
+        Scoreboard scoreboard = target.getScoreboard();
+        Membership previous = memberships.get(playerId);
+
+        if (previous != null) {
+            if (previous.scoreboard == scoreboard && previous.teamName.equals(target.getName())) {
+                if (!previous.entry.equals(entry)) {
+                    target.removeEntry(previous.entry);
+                }
+            } else {
+                leave(previous);
+            }
+        }
+
+        // Bukkit also drops the entry from any other team on this scoreboard
+        if (!target.hasEntry(entry)) {
+            target.addEntry(entry);
+        }
+        memberships.put(playerId, new Membership(scoreboard, target.getName(), entry));
+    }
+
+    /**
+     * Take a player out of their indexed team
+     */
+    public void remove(UUID playerId) {
+        Membership previous = memberships.remove(playerId);
+        if (previous != null) {
+            leave(previous);
+        }
+    }
+
+    public String getTeamName(UUID playerId) {
+        Membership membership = memberships.get(playerId);
+        return membership != null ? membership.teamName : null;
+    }
+
+    public int size() {
+        return memberships.size();
+    }
+
+    private void leave(Membership membership) {
+        try {
+            Team team = membership.scoreboard.getTeam(membership.teamName);
+            if (team == null) {
+                return;
+            }
+            team.removeEntry(membership.entry);
+            if (team.getSize() == 0) {
+                team.unregister();
+                plugin.debug("Unregistered empty team " + membership.teamName);
+            }
+        } catch (IllegalStateException e) {
+            // Team was unregistered by someone else
+            plugin.debug("Team " + membership.teamName + " already gone: " + e.getMessage());
+        }
+    }
+
+    private static final class TeamKey {
+        private final int weight;
+        private final String prefix;
+        private final String suffix;
+
+        private TeamKey(int weight, String prefix, String suffix) {
+            this.weight = weight;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TeamKey)) return false;
+            TeamKey other = (TeamKey) o;
+            return weight == other.weight && prefix.equals(other.prefix) && suffix.equals(other.suffix);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(weight, prefix, suffix);
+        }
+    }
+
+    private static final class Membership {
+        private final Scoreboard scoreboard;
+        private final String teamName;
+        private final String entry;
+
+        private Membership(Scoreboard scoreboard, String teamName, String entry) {
+            this.scoreboard = scoreboard;
+            this.teamName = teamName;
+            this.entry = entry;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces permission recalculations: players are marked dirty and recalculated
+ * at most once per tick, however many changes were made to them in between.
+ */
+public class PermissionRecalculator {
+
+    // Five minutes between debug metric lines
+    private static final long METRICS_INTERVAL_TICKS = 20L * 60 * 5;
+
+    private final Rankcorex plugin;
+    private final Map<UUID, Player> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong performed = new AtomicLong();
+    private BukkitTask task;
+    private BukkitTask metricsTask;
+    private long lastLoggedRequested;
+
+    public PermissionRecalculator(Rankcorex plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+        }
+        // Always scheduled: debug mode can be switched on by a reload
+        if (metricsTask == null) {
+            metricsTask = Bukkit.getScheduler().runTaskTimer(plugin, this::logMetrics, METRICS_INTERVAL_TICKS, METRICS_INTERVAL_TICKS);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (metricsTask != null) {
+            metricsTask.cancel();
+            metricsTask = null;
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Request a recalculation on the next tick
+     */
+    public void markDirty(Player player) {
+        requested.incrementAndGet();
+        dirty.put(player.getUniqueId(), player);
+    }
+
+    /**
+     * Drop a pending recalculation (player left)
+     */
+    public void cancel(UUID playerId) {
+        dirty.remove(playerId);
+    }
+
+    /**
+     * Recalculate every dirty player once (main thread)
+     */
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        Iterator<Player> iterator = dirty.values().iterator();
+        while (iterator.hasNext()) {
+            Player player = iterator.next();
+            iterator.remove();
+            if (!player.isOnline()) {
+                continue;
+            }
+
+            try {
+                player.recalculatePermissions();
+                performed.incrementAndGet();
+            } catch (Exception e) {
+                plugin.debug("Error recalculating permissions for " + player.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Debug line with the counters, skipped outside debug mode or when nothing was requested since the last one
+     */
+    public void logMetrics() {
+        long currentRequested = requested.get();
+        if (!plugin.isDebugMode() || currentRequested == lastLoggedRequested) {
+            return;
+        }
+        lastLoggedRequested = currentRequested;
+        plugin.debug("Permission recalculations: " + currentRequested + " requested, " + getPerformed() +
+                " performed, " + getSaved() + " saved by coalescing");
+    }
+
+    public long getRequested() {
+        return requested.get();
+    }
+
+    public long getPerformed() {
+        return performed.get();
+    }
+
+    /**
+     * Recalculations avoided by coalescing (requests for offline players included)
+     */
+    public long getSaved() {
+        return requested.get() - performed.get() - dirty.size();
+    }
+}
\ No newline at end of file
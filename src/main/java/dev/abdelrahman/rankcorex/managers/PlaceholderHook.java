@@ -3,6 +3,7 @@ package dev.abdelrahman.rankcorex.managers;
 import dev.abdelrahman.rankcorex.Rankcorex;
 import dev.abdelrahman.rankcorex.models.PlayerRankData;
 import dev.abdelrahman.rankcorex.utils.MessageUtils;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 
@@ -67,8 +68,8 @@ public class PlaceholderHook extends PlaceholderExpansion {
                 return "Permanent";
 
             case "time_given":
-                if (playerData != null && playerData.getTimeGiven() != null) {
-                    return playerData.getTimeGiven();
+                if (playerData != null && playerData.getTimeGiven() > 0) {
+                    return TimeUtils.formatTimestamp(playerData.getTimeGiven());
                 }
                 return "Unknown";
 
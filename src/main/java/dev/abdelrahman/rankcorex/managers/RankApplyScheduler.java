@@ -0,0 +1,144 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.utils.MessageUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Re-applies ranks to online players spread over several ticks.
+ * Each tick works through the queue until the configured time budget is used up,
+ * highest weight (staff) first. Main thread only.
+ */
+public class RankApplyScheduler {
+
+    private static final long PROGRESS_INTERVAL_TICKS = 20L;
+
+    private final Rankcorex plugin;
+    private final RankManager rankManager;
+    private final Deque<UUID> queue = new ArrayDeque<>();
+    // Work per queued player
+    private final Map<UUID, Consumer<Player>> actions = new HashMap<>();
+    private BukkitTask task;
+    private CommandSender reportTo;
+    private int total;
+    private int processed;
+    private long ticks;
+    private long startedAt;
+
+    public RankApplyScheduler(Rankcorex plugin, RankManager rankManager) {
+        this.plugin = plugin;
+        this.rankManager = rankManager;
+    }
+
+    /**
+     * Queue work for the given players, merged with any pass still in progress.
+     *
+     * @param sender receives progress reports, may be null
+     */
+    public void submit(Map<Player, Consumer<Player>> work, CommandSender sender) {
+        // Players still waiting from an earlier pass keep their work, new work runs after it
+        for (Map.Entry<Player, Consumer<Player>> entry : work.entrySet()) {
+            actions.merge(entry.getKey().getUniqueId(), entry.getValue(), Consumer::andThen);
+        }
+
+        List<UUID> ordered = new ArrayList<>(actions.keySet());
+        Map<UUID, Integer> weights = new HashMap<>();
+        for (UUID playerId : ordered) {
+            weights.put(playerId, rankManager.getPlayerWeight(playerId));
+        }
+        ordered.sort((p1, p2) -> Integer.compare(weights.get(p2), weights.get(p1)));
+
+        queue.clear();
+        queue.addAll(ordered);
+
+        this.reportTo = sender;
+        this.total = queue.size();
+        this.processed = 0;
+        this.ticks = 0;
+        this.startedAt = System.currentTimeMillis();
+
+        if (queue.isEmpty()) {
+            finish();
+            return;
+        }
+
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        plugin.debug("Queued rank re-application for " + total + " players");
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+        actions.clear();
+        reportTo = null;
+    }
+
+    private void tick() {
+        long budgetNanos = Math.max(1L, plugin.getConfig().getLong("reload.tick-budget", 5L)) * 1000000L;
+        long deadline = System.nanoTime() + budgetNanos;
+        ticks++;
+
+        // Always make progress, even if a single player takes longer than the budget
+        do {
+            UUID playerId = queue.poll();
+            if (playerId == null) {
+                break;
+            }
+            Consumer<Player> action = actions.remove(playerId);
+            processed++;
+
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null || !player.isOnline() || action == null) {
+                continue;
+            }
+
+            try {
+                action.accept(player);
+            } catch (Exception e) {
+                plugin.error("Failed to reapply rank for " + player.getName() + ": " + e.getMessage());
+            }
+        } while (System.nanoTime() < deadline);
+
+        if (queue.isEmpty()) {
+            task.cancel();
+            task = null;
+            finish();
+        } else if (ticks % PROGRESS_INTERVAL_TICKS == 0) {
+            report(MessageUtils.replacePlaceholders(MessageUtils.REAPPLY_PROGRESS,
+                    "done", String.valueOf(processed),
+                    "total", String.valueOf(total)));
+        }
+    }
+
+    private void finish() {
+        long elapsed = System.currentTimeMillis() - startedAt;
+        plugin.debug("Reapplied ranks to " + total + " players over " + ticks + " ticks (" + elapsed + "ms)");
+        report(MessageUtils.replacePlaceholders(MessageUtils.REAPPLY_DONE,
+                "count", String.valueOf(total),
+                "ticks", String.valueOf(ticks)));
+        reportTo = null;
+    }
+
+    private void report(String message) {
+        CommandSender sender = reportTo;
+        if (sender == null) {
+            return;
+        }
+        if (sender instanceof Player && !((Player) sender).isOnline()) {
+            reportTo = null;
+            return;
+        }
+        sender.sendMessage(MessageUtils.colorize(message));
+    }
+}
\ No newline at end of file
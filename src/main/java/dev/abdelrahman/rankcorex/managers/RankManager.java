@@ -3,9 +3,12 @@ package dev.abdelrahman.rankcorex.managers;
 import dev.abdelrahman.rankcorex.Rankcorex;
 import dev.abdelrahman.rankcorex.models.PlayerRankData;
 import dev.abdelrahman.rankcorex.models.RankData;
+import dev.abdelrahman.rankcorex.models.RankDisplay;
+import dev.abdelrahman.rankcorex.models.RankRegistry;
 import dev.abdelrahman.rankcorex.utils.MessageUtils;
 import dev.abdelrahman.rankcorex.utils.TimeUtils;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -17,24 +20,70 @@ import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.Team;
 
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 public class RankManager {
 
     private final Rankcorex plugin;
-    private final Map<String, RankData> ranks = new ConcurrentHashMap<>();
+    // Published in a single swap; read without locking
+    private volatile RankRegistry registry = RankRegistry.EMPTY;
     private final Map<UUID, PlayerRankData> playerRanks = new ConcurrentHashMap<>();
     private final Map<UUID, PermissionAttachment> permissionAttachments = new ConcurrentHashMap<>();
-    private final Map<UUID, Set<String>> playerPermissions = new ConcurrentHashMap<>();
+    // Compiled rank tables, shared by every player holding the rank
+    private final Map<UUID, Map<String, Boolean>> playerPermissions = new ConcurrentHashMap<>();
 
-    // Thread safety for critical operations
+    // Thread safety for critical operations (serializes registry rebuilds)
     private final ReentrantLock rankLoadLock = new ReentrantLock();
+    private long reloadGeneration; // main thread only
+    private long publishedGeneration; // main thread only
+    private long publishedConfigGeneration; // main thread only
     private final Map<UUID, ReentrantLock> playerLocks = new ConcurrentHashMap<>();
 
-    private RankData defaultRank;
+    // Joins waiting for the next batched rank load (main thread only)
+    private final Map<UUID, Player> pendingLoads = new LinkedHashMap<>();
+    private boolean loadFlushScheduled;
+    private final long joinBatchWindow;
+
+    // Ranks fetched during async pre-login, handed to the join on the main thread
+    private final Map<UUID, PreloadedRank> preloadedRanks = new ConcurrentHashMap<>();
+    private final long preloadTimeout;
+    private static final long PRELOAD_TTL_MILLIS = 30000L;
+    // Pre-logins arriving within this many milliseconds share one bulk query
+    private final long preloadBatchWindow;
+    private final Object preloadLock = new Object();
+    private PreloadBatch preloadBatch;
+    // Closes preload batches when their window ends, so no pre-login thread sleeps through it
+    private final ScheduledExecutorService preloadTimer;
+    // Last rank change per player (System.nanoTime), to drop preloads that may have read an older rank
+    private final Map<UUID, Long> rankChangeTimes = new ConcurrentHashMap<>();
+
+    // Fires temporary rank expirations on the main thread
+    private final ExpiryScheduler expiryScheduler;
+
+    // Spreads rank re-application after a reload over several ticks
+    private final RankApplyScheduler applyScheduler;
+
+    // At most one permission recalculation per player per tick
+    private final PermissionRecalculator permissionRecalculator;
+
+    // Which rc_ team each player is in
+    private final NametagTeamIndex teamIndex;
+
+    // Nametag/tablist changes, deduplicated and sent once per tick
+    private final DisplayUpdatePipeline displayPipeline;
 
     // Version detection for universal compatibility
     private String mcVersion;
@@ -45,10 +94,29 @@ public class RankManager {
     private static final String PERMISSION_PATTERN = "^[a-zA-Z0-9._*-]+$";
     private static final int MAX_PREFIX_LENGTH = 16;
     private static final int MAX_SUFFIX_LENGTH = 16;
-    private static final String TEAM_PREFIX = "rc_";
+
+    // PermissionAttachment's backing map, used to add all nodes with a single recalculation
+    private Field attachmentPermissionsField;
+    private boolean attachmentFieldLookedUp;
 
     public RankManager(Rankcorex plugin) {
         this.plugin = plugin;
+        this.joinBatchWindow = plugin.getConfig().getLong("storage.join-batch-window", 2L);
+        this.preloadTimeout = plugin.getConfig().getLong("storage.preload-timeout", 3000L);
+        this.preloadBatchWindow = plugin.getConfig().getLong("storage.preload-batch-window", 20L);
+        this.preloadTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RankCorex-Preload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expiryScheduler = new ExpiryScheduler(plugin, this::expirePlayerRank);
+        this.expiryScheduler.start();
+        this.applyScheduler = new RankApplyScheduler(plugin, this);
+        this.permissionRecalculator = new PermissionRecalculator(plugin);
+        this.permissionRecalculator.start();
+        this.teamIndex = new NametagTeamIndex(plugin);
+        this.displayPipeline = new DisplayUpdatePipeline(plugin, this::applyDisplay);
+        this.displayPipeline.start();
 
         // Detect Minecraft version for compatibility
         this.mcVersion = Bukkit.getBukkitVersion();
@@ -61,10 +129,142 @@ public class RankManager {
                 (isVeryOldMinecraft ? " - Using compatibility mode" : ""));
     }
 
+    /**
+     * Stop the tick tasks and drop their queued work (plugin disable)
+     */
+    public void shutdown() {
+        expiryScheduler.stop();
+        applyScheduler.stop();
+        permissionRecalculator.stop();
+        displayPipeline.stop();
+        preloadTimer.shutdownNow();
+    }
+
+    /**
+     * Load ranks.yml and publish it immediately (used on startup)
+     */
     public void loadRanks() {
+        RankRegistry loaded = parseRanks();
+        if (loaded != null) {
+            registry = loaded;
+        }
+    }
+
+    /**
+     * Parse and validate ranks.yml asynchronously, then publish the snapshot on the main thread
+     * and reapply whatever changed to the online players holding affected ranks.
+     * The callback runs on the main thread with false if the file could not be loaded.
+     *
+     * @param sender receives reapply progress reports, may be null
+     */
+    public void reloadRanksAsync(CommandSender sender, Consumer<Boolean> callback) {
+        reloadRanksAsync(sender, false, callback);
+    }
+
+    /**
+     * Same as reloadRanksAsync, optionally re-reading config.yml in the same async task.
+     * The config is made active on the main thread before the ranks, even if ranks.yml fails.
+     */
+    public void reloadRanksAsync(CommandSender sender, boolean withConfig, Consumer<Boolean> callback) {
+        long generation = ++reloadGeneration;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            FileConfiguration config = null;
+            if (withConfig) {
+                try {
+                    config = plugin.loadConfigFile();
+                } catch (Exception e) {
+                    plugin.error("Failed to load config.yml: " + e.getMessage());
+                }
+            }
+
+            RankRegistry loaded;
+            try {
+                loaded = parseRanks();
+            } catch (Exception e) {
+                plugin.error("Failed to parse ranks.yml: " + e.getMessage());
+                loaded = null;
+            }
+
+            if (!plugin.isEnabled()) {
+                return;
+            }
+
+            RankRegistry result = loaded;
+            FileConfiguration configResult = config;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (configResult != null && generation > publishedConfigGeneration) {
+                    publishedConfigGeneration = generation;
+                    plugin.applyConfig(configResult);
+                }
+
+                if (result == null) {
+                    callback.accept(false);
+                    return;
+                }
+
+                // A newer reload may already have been published
+                if (generation > publishedGeneration) {
+                    publishedGeneration = generation;
+                    RankRegistry previous = registry;
+                    registry = result;
+                    reapplyChangedRanks(previous, result, sender);
+                } else {
+                    plugin.debug("Discarding superseded rank reload #" + generation);
+                }
+                callback.accept(true);
+            });
+        });
+    }
+
+    /**
+     * Queue the changed parts of each online player's rank, spread over several ticks.
+     * Players whose effective rank is unchanged and whose rank definition is identical are skipped.
+     */
+    private void reapplyChangedRanks(RankRegistry previous, RankRegistry current, CommandSender sender) {
+        if (previous.getHash().equals(current.getHash())) {
+            plugin.debug("Rank definitions unchanged, nothing to reapply");
+            return;
+        }
+
+        Map<String, Set<RankRegistry.Aspect>> changes = current.diff(previous);
+        Map<Player, Consumer<Player>> work = new LinkedHashMap<>();
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerRankData data = playerRanks.get(player.getUniqueId());
+            RankData before = effectiveRank(previous, data);
+            RankData after = effectiveRank(current, data);
+
+            Set<RankRegistry.Aspect> aspects;
+            if (before == null || after == null || !before.getName().equalsIgnoreCase(after.getName())) {
+                aspects = EnumSet.allOf(RankRegistry.Aspect.class);
+            } else {
+                aspects = changes.get(after.getName().toLowerCase());
+            }
+
+            if (aspects != null && !aspects.isEmpty()) {
+                Set<RankRegistry.Aspect> apply = aspects;
+                work.put(player, p -> applyPlayerRank(p, apply));
+            }
+        }
+
+        plugin.debug("Ranks changed: " + changes.keySet() + ", reapplying to " + work.size() + " players");
+        applyScheduler.submit(work, sender);
+    }
+
+    /**
+     * The rank a player ends up with in a snapshot: their own if it exists, else the default
+     */
+    private RankData effectiveRank(RankRegistry snapshot, PlayerRankData data) {
+        RankData rank = data != null ? snapshot.get(data.getRankName()) : null;
+        return rank != null ? rank : snapshot.getDefaultRank();
+    }
+
+    /**
+     * Build a registry from ranks.yml, or null if the file has no ranks section
+     */
+    private RankRegistry parseRanks() {
         rankLoadLock.lock();
         try {
-            ranks.clear();
             File ranksFile = new File(plugin.getDataFolder(), "ranks.yml");
 
             if (!ranksFile.exists()) {
@@ -76,10 +276,14 @@ public class RankManager {
             ConfigurationSection ranksSection = ranksConfig.getConfigurationSection("ranks");
 
             if (ranksSection == null) {
-                plugin.error("No ranks section found in ranks.yml!");
-                return;
+                plugin.error("No ranks section found in ranks.yml! Keeping the previously loaded ranks");
+                return null;
             }
 
+            // Build the new snapshot locally; readers keep the old one until the swap
+            Map<String, RankData> ranks = new LinkedHashMap<>();
+            RankData defaultRank = null;
+
             // Track default ranks for validation
             List<String> defaultRanks = new ArrayList<>();
 
@@ -118,10 +322,11 @@ public class RankManager {
             } else if (defaultRanks.isEmpty()) {
                 plugin.error("No default rank found! Please set one rank with 'default: true' in ranks.yml");
                 // Create emergency default rank
-                createEmergencyDefaultRank();
+                defaultRank = createEmergencyDefaultRank(ranks);
             }
 
             plugin.log("Loaded " + ranks.size() + " ranks from configuration");
+            return new RankRegistry(ranks, defaultRank);
         } finally {
             rankLoadLock.unlock();
         }
@@ -130,11 +335,11 @@ public class RankManager {
     /**
      * Create an emergency default rank if none is configured
      */
-    private void createEmergencyDefaultRank() {
+    private RankData createEmergencyDefaultRank(Map<String, RankData> ranks) {
         plugin.log("Creating emergency default rank...");
         RankData emergencyRank = new RankData("default", "&7[Default] ", "", 1, true, new ArrayList<>());
         ranks.put("default", emergencyRank);
-        defaultRank = emergencyRank;
+        return emergencyRank;
     }
 
     /**
@@ -230,31 +435,151 @@ public class RankManager {
     }
 
     public RankData getRank(String rankName) {
-        return ranks.get(rankName.toLowerCase());
+        return registry.get(rankName);
     }
 
     public Collection<RankData> getAllRanks() {
-        return new ArrayList<>(ranks.values());
+        return new ArrayList<>(registry.getRanks());
     }
 
     public List<RankData> getAllRanksSorted() {
-        return ranks.values().stream()
-                .sorted((r1, r2) -> Integer.compare(r2.getWeight(), r1.getWeight()))
-                .collect(Collectors.toList());
+        return new ArrayList<>(registry.getSorted());
     }
 
     public RankData getDefaultRank() {
-        return defaultRank;
+        return registry.getDefaultRank();
     }
 
     public boolean rankExists(String rankName) {
-        return rankName != null && ranks.containsKey(rankName.toLowerCase());
+        return registry.contains(rankName);
+    }
+
+    /**
+     * Current rank snapshot; hold on to it to read several values consistently
+     */
+    public RankRegistry getRegistry() {
+        return registry;
     }
 
     public PlayerRankData getPlayerRank(UUID playerId) {
         return playerRanks.get(playerId);
     }
 
+    /**
+     * Fetch a connecting player's rank before they join (called on the async pre-login thread).
+     * The first pre-login of a wave opens a batch that a timer closes preload-batch-window ms later
+     * with one bulk query; every login in the batch waits on that shared result.
+     */
+    public void preloadPlayerRank(UUID playerId) {
+        // Logins that were denied later never consume their entry
+        preloadedRanks.values().removeIf(PreloadedRank::isStale);
+        long now = System.nanoTime();
+        long keepNanos = TimeUnit.MILLISECONDS.toNanos(PRELOAD_TTL_MILLIS + preloadBatchWindow + preloadTimeout);
+        rankChangeTimes.values().removeIf(changedAt -> now - changedAt > keepNanos);
+
+        PreloadBatch batch;
+        boolean opened = false;
+        synchronized (preloadLock) {
+            if (preloadBatch == null) {
+                preloadBatch = new PreloadBatch();
+                opened = true;
+            }
+            batch = preloadBatch;
+            batch.playerIds.add(playerId);
+        }
+
+        if (opened) {
+            scheduleDispatch(batch);
+        }
+
+        try {
+            Map<UUID, PlayerRankData> loaded = batch.result.get(preloadTimeout, TimeUnit.MILLISECONDS);
+            PreloadedRank preloaded = new PreloadedRank(loaded.get(playerId));
+            preloadedRanks.put(playerId, preloaded);
+
+            // Checked after the put: a change either sees the entry and removes it, or is seen here
+            Long changedAt = rankChangeTimes.get(playerId);
+            if (changedAt != null && changedAt - batch.openedAt >= 0) {
+                preloadedRanks.remove(playerId, preloaded);
+                plugin.debug("Rank for " + playerId + " changed during preload, loading it on join instead");
+            }
+        } catch (TimeoutException e) {
+            plugin.debug("Rank preload for " + playerId + " timed out, loading on join instead");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.error("Failed to preload rank for " + playerId + ": " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Dispatch the batch once its window has passed
+     */
+    private void scheduleDispatch(PreloadBatch batch) {
+        if (preloadBatchWindow <= 0) {
+            dispatchPreloadBatch(batch);
+            return;
+        }
+
+        try {
+            preloadTimer.schedule(() -> dispatchPreloadBatch(batch), preloadBatchWindow, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, don't leave the batch waiting for a timer that never fires
+            dispatchPreloadBatch(batch);
+        }
+    }
+
+    /**
+     * Close the batch and load every queued player with one storage request
+     */
+    private void dispatchPreloadBatch(PreloadBatch batch) {
+        List<UUID> playerIds;
+        synchronized (preloadLock) {
+            if (preloadBatch == batch) {
+                preloadBatch = null;
+            }
+            playerIds = new ArrayList<>(batch.playerIds);
+        }
+
+        if (playerIds.size() > 1) {
+            plugin.debug("Preloading ranks for " + playerIds.size() + " connecting players in one batch");
+        }
+
+        try {
+            plugin.getStorageManager().getPlayerRanks(playerIds).whenComplete((loaded, error) -> {
+                if (error != null) {
+                    batch.result.completeExceptionally(error);
+                } else {
+                    batch.result.complete(loaded);
+                }
+            });
+        } catch (Exception e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Note a rank change so a preload already in flight can't hand the old rank to the join
+     */
+    private void invalidatePreload(UUID playerId) {
+        rankChangeTimes.put(playerId, System.nanoTime());
+        preloadedRanks.remove(playerId);
+    }
+
+    /**
+     * Attach the preloaded rank on join, or load it now if pre-login didn't
+     */
+    public void handlePlayerJoin(Player player) {
+        PreloadedRank preloaded = preloadedRanks.remove(player.getUniqueId());
+        if (preloaded != null && !preloaded.isStale()) {
+            plugin.debug("Using preloaded rank for " + player.getName());
+            applyLoadedRank(player, preloaded.rankData);
+            return;
+        }
+
+        loadPlayerRank(player);
+    }
+
     /**
      * player rank loading with better error handling
      */
@@ -264,61 +589,113 @@ public class RankManager {
             return;
         }
 
-        UUID playerId = player.getUniqueId();
-        ReentrantLock lock = getPlayerLock(playerId);
+        if (joinBatchWindow <= 0) {
+            loadPlayerRanks(Collections.singletonList(player));
+            return;
+        }
 
-        plugin.getStorageManager().getPlayerRank(playerId).thenAccept(rankData -> {
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                lock.lock();
-                try {
-                    // Verify player is still online
-                    if (!player.isOnline()) {
-                        plugin.debug("Player " + player.getName() + " went offline during rank loading");
-                        return;
-                    }
+        // Gather arrivals for a few ticks so a join wave becomes a few bulk queries
+        pendingLoads.put(player.getUniqueId(), player);
+        if (!loadFlushScheduled) {
+            loadFlushScheduled = true;
+            Bukkit.getScheduler().runTaskLater(plugin, this::flushPendingLoads, joinBatchWindow);
+        }
+    }
 
-                    if (rankData != null && rankExists(rankData.getRankName())) {
-                        // Check if rank has expired
-                        if (rankData.getTimeExpires() != null && TimeUtils.hasExpired(rankData.getTimeExpires())) {
-                            plugin.debug("Rank " + rankData.getRankName() + " has expired for player " + player.getName());
-                            // Remove expired rank and use default
-                            plugin.getStorageManager().removePlayerRank(playerId);
-                            assignDefaultRank(player);
-                        } else {
-                            playerRanks.put(playerId, rankData);
-                            plugin.debug("Loaded rank " + rankData.getRankName() + " for player " + player.getName());
-                        }
-                    } else {
-                        // Player has no rank or invalid rank, use default
-                        assignDefaultRank(player);
-                    }
+    private void flushPendingLoads() {
+        loadFlushScheduled = false;
+        if (pendingLoads.isEmpty()) {
+            return;
+        }
 
-                    // Apply permissions and nametag
-                    applyPlayerRank(player);
-                } finally {
-                    lock.unlock();
+        List<Player> players = new ArrayList<>(pendingLoads.values());
+        pendingLoads.clear();
+        loadPlayerRanks(players);
+    }
+
+    /**
+     * Load and apply ranks for a group of players with one storage request
+     */
+    private void loadPlayerRanks(List<Player> players) {
+        List<UUID> playerIds = new ArrayList<>(players.size());
+        for (Player player : players) {
+            playerIds.add(player.getUniqueId());
+        }
+
+        if (players.size() > 1) {
+            plugin.debug("Loading ranks for " + players.size() + " players in one batch");
+        }
+
+        plugin.getStorageManager().getPlayerRanks(playerIds).thenAccept(loaded -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (Player player : players) {
+                    applyLoadedRank(player, loaded.get(player.getUniqueId()));
                 }
             });
         }).exceptionally(throwable -> {
-            plugin.error("Failed to load rank for player " + player.getName() + ": " + throwable.getMessage());
-            Bukkit.getScheduler().runTask(plugin, () -> assignDefaultRank(player));
+            plugin.error("Failed to load ranks for " + players.size() + " players: " + throwable.getMessage());
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (Player player : players) {
+                    if (player.isOnline()) {
+                        assignDefaultRank(player);
+                    }
+                }
+            });
             return null;
         });
     }
 
+    private void applyLoadedRank(Player player, PlayerRankData rankData) {
+        UUID playerId = player.getUniqueId();
+        ReentrantLock lock = getPlayerLock(playerId);
+
+        lock.lock();
+        try {
+            // Verify player is still online
+            if (!player.isOnline()) {
+                plugin.debug("Player " + player.getName() + " went offline during rank loading");
+                return;
+            }
+
+            if (rankData != null && rankExists(rankData.getRankName())) {
+                // Check if rank has expired
+                if (rankData.hasExpired()) {
+                    plugin.debug("Rank " + rankData.getRankName() + " has expired for player " + player.getName());
+                    // Remove expired rank and use default
+                    plugin.getStorageManager().removePlayerRank(playerId);
+                    assignDefaultRank(player);
+                } else {
+                    playerRanks.put(playerId, rankData);
+                    expiryScheduler.schedule(rankData);
+                    plugin.debug("Loaded rank " + rankData.getRankName() + " for player " + player.getName());
+                }
+            } else {
+                // Player has no rank or invalid rank, use default
+                assignDefaultRank(player);
+            }
+
+            // Apply permissions and nametag
+            applyPlayerRank(player);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Assign default rank to a player
      */
     private void assignDefaultRank(Player player) {
+        RankData defaultRank = registry.getDefaultRank();
         if (defaultRank != null) {
             PlayerRankData defaultData = new PlayerRankData(
                     player.getUniqueId(),
                     player.getName(),
                     defaultRank.getName(),
                     TimeUtils.getCurrentTimestamp(),
-                    null
+                    0L
             );
             playerRanks.put(player.getUniqueId(), defaultData);
+            expiryScheduler.cancel(player.getUniqueId());
             plugin.debug("Assigned default rank to player " + player.getName());
         } else {
             plugin.error("No default rank available for player " + player.getName());
@@ -348,14 +725,16 @@ public class RankManager {
                 return false;
             }
 
-            String timeExpires = timeSeconds > 0 ? TimeUtils.getFutureTimestamp(timeSeconds) : null;
-            String timeGiven = TimeUtils.getCurrentTimestamp();
+            long timeExpires = TimeUtils.getFutureTimestamp(timeSeconds);
+            long timeGiven = TimeUtils.getCurrentTimestamp();
 
             PlayerRankData rankData = new PlayerRankData(playerId, playerName, rankName, timeGiven, timeExpires);
             playerRanks.put(playerId, rankData);
+            invalidatePreload(playerId);
+            expiryScheduler.schedule(rankData);
 
             // Save to storage
-            plugin.getStorageManager().setPlayerRank(playerId, playerName, rankName, timeExpires);
+            CompletableFuture<Void> saved = plugin.getStorageManager().setPlayerRank(playerId, playerName, rankName, timeExpires);
 
             // Apply to online player
             Player player = Bukkit.getPlayer(playerId);
@@ -363,9 +742,10 @@ public class RankManager {
                 applyPlayerRank(player);
             }
 
-            // Sync across network if enabled
-            if (plugin.getSyncManager() != null) {
-                plugin.getSyncManager().syncRankChange(playerId, playerName, rankName, timeExpires);
+            // Sync across network once the change is stored, other servers re-read it from the database
+            SyncManager syncManager = plugin.getSyncManager();
+            if (syncManager != null && syncManager.isEnabled()) {
+                afterStored(playerId, saved, () -> syncManager.syncRankChange(playerId, playerName, rankName, timeExpires));
             }
 
             plugin.debug("Set rank " + rankName + " for player " + playerName +
@@ -384,6 +764,7 @@ public class RankManager {
         ReentrantLock lock = getPlayerLock(playerId);
         lock.lock();
         try {
+            invalidatePreload(playerId);
             PlayerRankData currentRank = playerRanks.get(playerId);
             if (currentRank == null) {
                 return false;
@@ -391,9 +772,10 @@ public class RankManager {
 
             // Remove from cache
             playerRanks.remove(playerId);
+            expiryScheduler.cancel(playerId);
 
             // Remove from storage
-            plugin.getStorageManager().removePlayerRank(playerId);
+            CompletableFuture<Void> removed = plugin.getStorageManager().removePlayerRank(playerId);
 
             // Apply default rank to online player
             Player player = Bukkit.getPlayer(playerId);
@@ -402,9 +784,10 @@ public class RankManager {
                 applyPlayerRank(player);
             }
 
-            // Sync across network if enabled
-            if (plugin.getSyncManager() != null) {
-                plugin.getSyncManager().syncRankRemoval(playerId, currentRank.getPlayerName());
+            // Sync across network once the removal is stored
+            SyncManager syncManager = plugin.getSyncManager();
+            if (syncManager != null && syncManager.isEnabled()) {
+                afterStored(playerId, removed, () -> syncManager.syncRankRemoval(playerId, currentRank.getPlayerName()));
             }
 
             plugin.debug("Removed rank from player " + currentRank.getPlayerName());
@@ -414,10 +797,33 @@ public class RankManager {
         }
     }
 
+    /**
+     * Flush the player's pending write and run the action on the main thread once storage has it
+     */
+    private void afterStored(UUID playerId, CompletableFuture<Void> write, Runnable action) {
+        plugin.getStorageManager().flushPlayer(playerId);
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.error("Rank change for " + playerId + " was not stored, not syncing it: " + error.getMessage());
+                return;
+            }
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, action);
+            }
+        });
+    }
+
     /**
      *  rank application with nametag and tablist support
      */
     public void applyPlayerRank(Player player) {
+        applyPlayerRank(player, EnumSet.allOf(RankRegistry.Aspect.class));
+    }
+
+    /**
+     * Apply only the given parts of a player's rank (used after a reload changed just those)
+     */
+    public void applyPlayerRank(Player player, Set<RankRegistry.Aspect> aspects) {
         if (player == null || !player.isOnline()) {
             return;
         }
@@ -427,14 +833,15 @@ public class RankManager {
         lock.lock();
         try {
             PlayerRankData playerRankData = playerRanks.get(playerId);
+            RankRegistry snapshot = registry;
+            RankData defaultRank = snapshot.getDefaultRank();
             RankData rankData = null;
 
             if (playerRankData != null) {
-                rankData = getRank(playerRankData.getRankName());
+                rankData = snapshot.get(playerRankData.getRankName());
 
                 // Double-check expiration
-                if (rankData != null && playerRankData.getTimeExpires() != null &&
-                        TimeUtils.hasExpired(playerRankData.getTimeExpires())) {
+                if (rankData != null && playerRankData.hasExpired()) {
                     plugin.debug("Rank expired for " + player.getName() + ", removing...");
                     removePlayerRank(playerId);
                     rankData = defaultRank;
@@ -451,22 +858,15 @@ public class RankManager {
             }
 
             // Apply permissions with universal compatibility
-            if (!applyPermissions(player, rankData)) {
+            if (aspects.contains(RankRegistry.Aspect.PERMISSIONS) && !applyPermissions(player, rankData)) {
                 plugin.error("Failed to apply permissions for player " + player.getName());
             }
 
-            // Apply nametag if enabled
-            if (plugin.getConfig().getBoolean("nametag.enabled", true)) {
-                if (!applyNametag(player, rankData)) {
-                    plugin.error("Failed to apply nametag for player " + player.getName());
-                }
-            }
-
-            // Apply tablist if enabled
-            if (plugin.getConfig().getBoolean("tablist.enabled", true)) {
-                if (!applyTablist(player, rankData)) {
-                    plugin.error("Failed to apply tablist for player " + player.getName());
-                }
+            // Nametag and tablist go out with the next per-tick display batch
+            if (aspects.contains(RankRegistry.Aspect.DISPLAY)) {
+                displayPipeline.queue(player, rankData,
+                        plugin.getConfig().getBoolean("nametag.enabled", true),
+                        plugin.getConfig().getBoolean("tablist.enabled", true));
             }
 
             plugin.debug("Applied rank " + rankData.getName() + " to player " + player.getName());
@@ -475,6 +875,21 @@ public class RankManager {
         }
     }
 
+    /**
+     * Apply a batched nametag/tablist update (called by the display pipeline)
+     */
+    private void applyDisplay(Player player, RankData rankData, boolean nametag, boolean tablist) {
+        // Apply nametag if enabled
+        if (nametag && !applyNametag(player, rankData)) {
+            plugin.error("Failed to apply nametag for player " + player.getName());
+        }
+
+        // Apply tablist if enabled
+        if (tablist && !applyTablist(player, rankData)) {
+            plugin.error("Failed to apply tablist for player " + player.getName());
+        }
+    }
+
     /**
      * UNIVERSAL PERMISSION SYSTEM - Works with all Minecraft versions
      */
@@ -483,7 +898,22 @@ public class RankManager {
         plugin.debug("Applying permissions to " + player.getName() + " (MC: " + mcVersion + ")");
 
         try {
-            // Step 1: Clean up old permissions
+            Map<String, Boolean> compiled = getCompiledPermissions(rankData);
+
+            // Reuse the session's attachment and change only the nodes that differ
+            PermissionAttachment current = permissionAttachments.get(playerId);
+            if (current != null && current.getPermissible() == player) {
+                Map<String, Boolean> previous = playerPermissions.getOrDefault(playerId, Collections.<String, Boolean>emptyMap());
+                int changed = updatePermissions(current, previous, compiled);
+                playerPermissions.put(playerId, compiled);
+                if (changed > 0) {
+                    permissionRecalculator.markDirty(player);
+                }
+                plugin.debug("Updated " + changed + " permission nodes for " + player.getName());
+                return true;
+            }
+
+            // Step 1: Clean up old permissions (attachment from a previous session)
             cleanupOldPermissions(player, playerId);
 
             // Step 2: Verify player is still online
@@ -499,26 +929,17 @@ public class RankManager {
                 return false;
             }
 
-            // Step 4: Apply all permissions from the rank
-            Set<String> appliedPermissions = new HashSet<>();
-            List<String> rankPermissions = rankData.getPermissions();
-
-            if (rankPermissions != null && !rankPermissions.isEmpty()) {
-                for (String permission : rankPermissions) {
-                    if (addSinglePermission(attachment, permission, player.getName())) {
-                        appliedPermissions.add(permission);
-                    }
-                }
-            }
+            // Step 4: Apply the rank's compiled permission table in one go
+            setPermissions(attachment, compiled);
 
             // Step 5: Store attachment and permissions
             permissionAttachments.put(playerId, attachment);
-            playerPermissions.put(playerId, appliedPermissions);
+            playerPermissions.put(playerId, compiled);
 
-            // Step 6: Update player permissions with version-specific timing
-            updatePlayerPermissions(player, rankPermissions);
+            // Step 6: Recalculate once, coalesced with any other change this tick
+            permissionRecalculator.markDirty(player);
 
-            plugin.debug("Successfully applied " + appliedPermissions.size() + " permissions to " + player.getName());
+            plugin.debug("Successfully applied " + compiled.size() + " permissions to " + player.getName());
             return true;
 
         } catch (Exception e) {
@@ -596,145 +1017,131 @@ public class RankManager {
     }
 
     /**
-     * Add a single permission safely
+     * Compiled permission table for a rank, shared from the registry when it is current
      */
-    private boolean addSinglePermission(PermissionAttachment attachment, String permission, String playerName) {
-        if (permission == null || permission.trim().isEmpty()) {
-            return false;
-        }
-
-        String cleanPerm = permission.trim();
-        boolean isPositive = true;
-
-        // Handle negative permissions
-        if (cleanPerm.startsWith("-")) {
-            isPositive = false;
-            cleanPerm = cleanPerm.substring(1).trim();
-            if (cleanPerm.isEmpty()) {
-                return false;
-            }
-        }
-
-        // Validate permission format
-        if (!isValidPermissionString(cleanPerm)) {
-            plugin.debug("Invalid permission string: " + cleanPerm);
-            return false;
+    private Map<String, Boolean> getCompiledPermissions(RankData rankData) {
+        RankRegistry snapshot = registry;
+        if (snapshot.get(rankData.getName()) == rankData) {
+            return snapshot.getCompiledPermissions(rankData.getName());
         }
+        // Rank from an older snapshot (e.g. a delayed retry across a reload)
+        return RankRegistry.compile(rankData.getPermissions());
+    }
 
-        try {
-            attachment.setPermission(cleanPerm, isPositive);
-            plugin.debug("Added permission " + cleanPerm + " = " + isPositive + " to " + playerName);
-            return true;
-        } catch (Exception e) {
-            plugin.debug("Failed to add permission " + cleanPerm + " to " + playerName + ": " + e.getMessage());
-            return false;
+    /**
+     * Pre-rendered display for a rank, shared from the registry when it is current
+     */
+    private RankDisplay getDisplay(RankData rankData) {
+        RankRegistry snapshot = registry;
+        if (snapshot.get(rankData.getName()) == rankData) {
+            return snapshot.getDisplay(rankData.getName());
         }
+        return new RankDisplay(rankData);
     }
 
     /**
-     * Validate permission string format
+     * Put every node into the attachment without recalculating per node.
+     * PermissionAttachment.setPermission recalculates the player's permissions on every call,
+     * so the backing map is filled directly; the caller recalculates once afterwards.
      */
-    private boolean isValidPermissionString(String permission) {
-        if (permission == null || permission.isEmpty()) {
-            return false;
+    private void setPermissions(PermissionAttachment attachment, Map<String, Boolean> permissions) {
+        if (permissions.isEmpty()) {
+            return;
         }
 
-        if (permission.contains("..") || permission.startsWith(".") || permission.endsWith(".")) {
-            return false;
+        Map<String, Boolean> target = getAttachmentPermissions(attachment);
+        if (target != null) {
+            target.putAll(permissions);
+            return;
         }
 
-        if (permission.length() > 255) {
-            return false;
+        // Fallback: one recalculation per node
+        for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+            attachment.setPermission(entry.getKey(), entry.getValue());
         }
-
-        return true;
     }
 
     /**
-     * Update player permissions with version-specific timing
+     * Turn the attachment's nodes from one compiled table into another, touching only the differences
+     *
+     * @return number of nodes set or unset
      */
-    private void updatePlayerPermissions(Player player, List<String> expectedPermissions) {
-        try {
-            // Immediate recalculation
-            player.recalculatePermissions();
-
-            // Delayed recalculation with version-specific timing
-            int delayTicks = isVeryOldMinecraft ? 15 : (isOldMinecraft ? 10 : 5);
+    private int updatePermissions(PermissionAttachment attachment, Map<String, Boolean> previous, Map<String, Boolean> next) {
+        if (previous == next) {
+            return 0;
+        }
 
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                if (player.isOnline()) {
-                    try {
-                        player.recalculatePermissions();
-                        plugin.debug("Updated permissions for " + player.getName() + " (delayed)");
-
-                        // Additional validation for old versions
-                        if (isVeryOldMinecraft) {
-                            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                                if (player.isOnline()) {
-                                    player.recalculatePermissions();
-                                    validatePermissionsWorking(player, expectedPermissions);
-                                    plugin.debug("Final permission update for " + player.getName());
-                                }
-                            }, 10L);
-                        }
+        Map<String, Boolean> target = getAttachmentPermissions(attachment);
+        int changed = 0;
 
-                    } catch (Exception e) {
-                        plugin.debug("Error in delayed permission update: " + e.getMessage());
-                    }
+        for (String node : previous.keySet()) {
+            if (!next.containsKey(node)) {
+                if (target != null) {
+                    target.remove(node);
+                } else {
+                    attachment.unsetPermission(node);
                 }
-            }, delayTicks);
+                changed++;
+            }
+        }
 
-        } catch (Exception e) {
-            plugin.debug("Error updating permissions: " + e.getMessage());
+        for (Map.Entry<String, Boolean> entry : next.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                if (target != null) {
+                    target.put(entry.getKey(), entry.getValue());
+                } else {
+                    attachment.setPermission(entry.getKey(), entry.getValue());
+                }
+                changed++;
+            }
         }
+        return changed;
     }
 
     /**
-     * Validate that permissions are actually working
+     * The attachment's backing node map, or null to fall back to the public setPermission.
+     * Checked against PermissionAttachment's "private final Map<String, Boolean> permissions"
+     * as found in Bukkit/Spigot 1.8.8 through 1.20.x and Paper 1.20.x; any other shape is not used.
      */
-    private void validatePermissionsWorking(Player player, List<String> expectedPermissions) {
-        if (expectedPermissions == null || expectedPermissions.isEmpty()) {
-            return;
-        }
-
-        boolean foundWorkingPermission = false;
-
-        for (String perm : expectedPermissions) {
-            if (perm == null || perm.trim().isEmpty() || perm.startsWith("-")) {
-                continue;
-            }
-
-            String cleanPerm = perm.trim();
+    @SuppressWarnings("unchecked")
+    private Map<String, Boolean> getAttachmentPermissions(PermissionAttachment attachment) {
+        if (attachmentPermissionsField == null && !attachmentFieldLookedUp) {
+            attachmentFieldLookedUp = true;
             try {
-                boolean hasPermission = player.hasPermission(cleanPerm);
-                plugin.debug("Permission validation - " + player.getName() + " has " + cleanPerm + ": " + hasPermission);
-
-                if (hasPermission) {
-                    foundWorkingPermission = true;
-                    break;
+                Field field = PermissionAttachment.class.getDeclaredField("permissions");
+                if (isStringBooleanMap(field)) {
+                    field.setAccessible(true);
+                    attachmentPermissionsField = field;
+                } else {
+                    plugin.debug("PermissionAttachment.permissions is " + field.getGenericType().getTypeName() +
+                            ", applying nodes one by one");
                 }
             } catch (Exception e) {
-                plugin.debug("Error testing permission " + cleanPerm + ": " + e.getMessage());
+                plugin.debug("PermissionAttachment map not accessible, applying nodes one by one: " + e.getMessage());
             }
         }
 
-        if (!foundWorkingPermission && !expectedPermissions.isEmpty()) {
-            plugin.debug("Permission validation failed for " + player.getName() + ", attempting recovery...");
-            // Attempt to reapply permissions
-            UUID playerId = player.getUniqueId();
-            PlayerRankData playerData = playerRanks.get(playerId);
-            if (playerData != null) {
-                RankData rankData = getRank(playerData.getRankName());
-                if (rankData != null) {
-                    plugin.debug("Retrying permission application for " + player.getName());
-                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                        if (player.isOnline()) {
-                            applyPermissions(player, rankData);
-                        }
-                    }, 5L);
-                }
-            }
+        if (attachmentPermissionsField == null) {
+            return null;
+        }
+        try {
+            return (Map<String, Boolean>) attachmentPermissionsField.get(attachment);
+        } catch (Exception e) {
+            plugin.debug("Failed to read PermissionAttachment map: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isStringBooleanMap(Field field) {
+        if (!Map.class.isAssignableFrom(field.getType())) {
+            return false;
+        }
+        Type type = field.getGenericType();
+        if (!(type instanceof ParameterizedType)) {
+            return false;
         }
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        return arguments.length == 2 && arguments[0] == String.class && arguments[1] == Boolean.class;
     }
 
     /**
@@ -753,53 +1160,18 @@ public class RankManager {
                 }
             }
 
-            String teamName = TEAM_PREFIX + String.format("%04d", Math.max(0, Math.min(9999, rankData.getWeight())));
-
-            // Clean up old teams first
-            cleanupPlayerTeams(scoreboard, player.getName());
-
-            Team team = scoreboard.getTeam(teamName);
-            if (team == null) {
-                team = scoreboard.registerNewTeam(teamName);
-            }
+            // Prefix and suffix are rendered once per rank
+            RankDisplay display = getDisplay(rankData);
+            String processedPrefix = display.getNametagPrefix();
+            String processedSuffix = display.getNametagSuffix();
 
-            // Process prefix and suffix with automatic gaps
-            String rawPrefix = rankData.getPrefix();
-            String rawSuffix = rankData.getSuffix();
+            // One team per distinct rendering, shared by everyone who looks the same
+            Team team = teamIndex.getTeam(scoreboard, rankData.getWeight(), processedPrefix, processedSuffix);
 
-            // Add spaces for gaps if prefix/suffix exist and don't already end/start with space
-            String prefix = "";
-            String suffix = "";
+            // Move player into the team (leaves their previous rank team)
+            teamIndex.move(player.getUniqueId(), player.getName(), team);
 
-            if (rawPrefix != null && !rawPrefix.isEmpty()) {
-                prefix = rawPrefix;
-                // Add space after prefix if it doesn't already end with one
-                if (!prefix.endsWith(" ")) {
-                    prefix += " ";
-                }
-            }
-
-            if (rawSuffix != null && !rawSuffix.isEmpty()) {
-                suffix = rawSuffix;
-                // Add space before suffix if it doesn't already start with one
-                if (!suffix.startsWith(" ")) {
-                    suffix = " " + suffix;
-                }
-            }
-
-            // Process and truncate prefix/suffix intelligently
-            String processedPrefix = processNametagText(prefix, true);
-            String processedSuffix = processNametagText(suffix, false);
-
-            team.setPrefix(processedPrefix);
-            team.setSuffix(processedSuffix);
-
-            // Add player to team
-            if (!team.hasEntry(player.getName())) {
-                team.addEntry(player.getName());
-            }
-
-            plugin.debug("Applied nametag to " + player.getName() + " with team " + teamName +
+            plugin.debug("Applied nametag to " + player.getName() + " with team " + team.getName() +
                     " (prefix: '" + processedPrefix + "', suffix: '" + processedSuffix + "')");
 
             return true;
@@ -814,42 +1186,8 @@ public class RankManager {
      */
     private boolean applyTablist(Player player, RankData rankData) {
         try {
-            // Get raw prefix and suffix
-            String rawPrefix = rankData.getPrefix();
-            String rawSuffix = rankData.getSuffix();
-
-            // Build tablist display name with gaps
-            StringBuilder displayName = new StringBuilder();
-
-            // Add prefix with space if it exists
-            if (rawPrefix != null && !rawPrefix.isEmpty()) {
-                String colorizedPrefix = MessageUtils.colorize(rawPrefix);
-                displayName.append(colorizedPrefix);
-                // Add space after prefix if it doesn't already end with one
-                if (!colorizedPrefix.endsWith(" ")) {
-                    displayName.append(" ");
-                }
-            }
-
-            // Add player name
-            displayName.append(player.getName());
-
-            // Add suffix with space if it exists
-            if (rawSuffix != null && !rawSuffix.isEmpty()) {
-                String colorizedSuffix = MessageUtils.colorize(rawSuffix);
-                // Add space before suffix if it doesn't already start with one
-                if (!colorizedSuffix.startsWith(" ")) {
-                    displayName.append(" ");
-                }
-                displayName.append(colorizedSuffix);
-            }
-
-            // Apply to tablist with length limit (40 characters for tablist)
-            String finalDisplayName = displayName.toString();
-            if (finalDisplayName.length() > 40) {
-                // Intelligently truncate while preserving important parts
-                finalDisplayName = truncateTablistName(finalDisplayName, rawPrefix, player.getName(), rawSuffix);
-            }
+            // Rendered once per rank; only the 40 character limit depends on the name
+            String finalDisplayName = getDisplay(rankData).getTablistName(player.getName());
 
             // Set the player list name
             player.setPlayerListName(finalDisplayName);
@@ -863,124 +1201,6 @@ public class RankManager {
         }
     }
 
-    /**
-     * Intelligently truncate tablist name while preserving important parts
-     */
-    private String truncateTablistName(String fullName, String rawPrefix, String playerName, String rawSuffix) {
-        try {
-            // Always prioritize showing the player name
-            String colorizedPrefix = rawPrefix != null ? MessageUtils.colorize(rawPrefix) : "";
-            String colorizedSuffix = rawSuffix != null ? MessageUtils.colorize(rawSuffix) : "";
-
-            // Calculate available space (40 - player name - 2 spaces for gaps)
-            int availableSpace = 40 - playerName.length() - 2;
-
-            if (availableSpace <= 0) {
-                // If player name alone is too long, just return the player name
-                return playerName.length() > 40 ? playerName.substring(0, 40) : playerName;
-            }
-
-            // Try to fit both prefix and suffix
-            int prefixLength = MessageUtils.stripColor(colorizedPrefix).length();
-            int suffixLength = MessageUtils.stripColor(colorizedSuffix).length();
-
-            if (prefixLength + suffixLength <= availableSpace) {
-                // Both fit, return full name
-                StringBuilder result = new StringBuilder();
-                if (!colorizedPrefix.isEmpty()) {
-                    result.append(colorizedPrefix);
-                    if (!colorizedPrefix.endsWith(" ")) result.append(" ");
-                }
-                result.append(playerName);
-                if (!colorizedSuffix.isEmpty()) {
-                    if (!colorizedSuffix.startsWith(" ")) result.append(" ");
-                    result.append(colorizedSuffix);
-                }
-                return result.toString();
-            }
-
-            // Priority: Prefix > Player Name > Suffix (truncate suffix first)
-            if (prefixLength <= availableSpace - 2) { // Leave some space for suffix
-                int remainingSpace = availableSpace - prefixLength;
-                String truncatedSuffix = colorizedSuffix;
-
-                if (suffixLength > remainingSpace) {
-                    String strippedSuffix = MessageUtils.stripColor(colorizedSuffix);
-                    if (remainingSpace > 2) {
-                        truncatedSuffix = MessageUtils.colorize(strippedSuffix.substring(0, remainingSpace - 2) + "..");
-                    } else {
-                        truncatedSuffix = "";
-                    }
-                }
-
-                StringBuilder result = new StringBuilder();
-                result.append(colorizedPrefix);
-                if (!colorizedPrefix.endsWith(" ")) result.append(" ");
-                result.append(playerName);
-                if (!truncatedSuffix.isEmpty()) {
-                    if (!truncatedSuffix.startsWith(" ")) result.append(" ");
-                    result.append(truncatedSuffix);
-                }
-                return result.toString();
-            }
-
-            // If prefix is too long, truncate it and skip suffix
-            if (availableSpace > 4) {
-                String strippedPrefix = MessageUtils.stripColor(colorizedPrefix);
-                String truncatedPrefix = MessageUtils.colorize(strippedPrefix.substring(0, availableSpace - 2) + "..");
-                return truncatedPrefix + " " + playerName;
-            }
-
-            // Last resort: just player name
-            return playerName;
-
-        } catch (Exception e) {
-            plugin.debug("Error truncating tablist name: " + e.getMessage());
-            return playerName; // Fallback to just player name
-        }
-    }
-
-    /**
-     * Intelligent nametag text processing
-     */
-    private String processNametagText(String text, boolean isPrefix) {
-        if (text == null) return "";
-
-        String colored = MessageUtils.colorize(text);
-        if (colored.length() <= 16) {
-            return colored;
-        }
-
-        // Try to preserve important parts
-        String stripped = MessageUtils.stripColor(colored);
-        if (stripped.length() <= 14) {
-            // Try to fit with some colors
-            return colored.length() > 16 ? colored.substring(0, 16) : colored;
-        }
-
-        // Truncate intelligently
-        if (isPrefix) {
-            return MessageUtils.colorize(stripped.substring(0, 14) + "..");
-        } else {
-            return MessageUtils.colorize(".." + stripped.substring(Math.max(0, stripped.length() - 14)));
-        }
-    }
-
-    /**
-     * Clean up old rank teams for a player
-     */
-    private void cleanupPlayerTeams(Scoreboard scoreboard, String playerName) {
-        try {
-            for (Team team : new HashSet<>(scoreboard.getTeams())) {
-                if (team.getName().startsWith(TEAM_PREFIX) && team.hasEntry(playerName)) {
-                    team.removeEntry(playerName);
-                }
-            }
-        } catch (Exception e) {
-            plugin.debug("Error cleaning up teams: " + e.getMessage());
-        }
-    }
-
     /**
      * UPDATED: Enhanced player cleanup with universal version support
      */
@@ -994,8 +1214,12 @@ public class RankManager {
             plugin.debug("Cleaning up " + player.getName());
 
             // Remove from our storage
+            pendingLoads.remove(playerId);
             playerRanks.remove(playerId);
+            expiryScheduler.cancel(playerId);
             playerPermissions.remove(playerId);
+            permissionRecalculator.cancel(playerId);
+            displayPipeline.cancel(playerId);
 
             // Remove permission attachment with universal compatibility
             PermissionAttachment attachment = permissionAttachments.remove(playerId);
@@ -1048,10 +1272,7 @@ public class RankManager {
      */
     private void cleanupPlayerScoreboard(Player player) {
         try {
-            Scoreboard scoreboard = player.getScoreboard();
-            if (scoreboard != null) {
-                cleanupPlayerTeams(scoreboard, player.getName());
-            }
+            teamIndex.remove(player.getUniqueId());
         } catch (Exception e) {
             plugin.debug("Scoreboard cleanup error for " + player.getName() + ": " + e.getMessage());
         }
@@ -1059,59 +1280,74 @@ public class RankManager {
 
     // Enhanced utility methods
     public boolean playerHasPermission(UUID playerId, String permission) {
-        Set<String> permissions = playerPermissions.get(playerId);
-        if (permissions == null) return false;
+        Map<String, Boolean> permissions = playerPermissions.get(playerId);
+        if (permissions == null || permission == null) return false;
 
-        return permissions.contains(permission + ":true") ||
-                permissions.contains("*:true") ||
-                (!permissions.contains(permission + ":false") &&
-                        permissions.stream().anyMatch(p -> p.startsWith("*:true")));
+        Boolean value = permissions.get(permission.toLowerCase());
+        if (value != null) {
+            return value;
+        }
+        return Boolean.TRUE.equals(permissions.get("*"));
     }
 
     public Set<String> getPlayerPermissions(UUID playerId) {
-        return new HashSet<>(playerPermissions.getOrDefault(playerId, new HashSet<>()));
+        Set<String> result = new HashSet<>();
+        Map<String, Boolean> permissions = playerPermissions.get(playerId);
+        if (permissions != null) {
+            for (Map.Entry<String, Boolean> entry : permissions.entrySet()) {
+                result.add(entry.getValue() ? entry.getKey() : "-" + entry.getKey());
+            }
+        }
+        return result;
     }
 
     // Existing utility methods with null safety
     public String getPlayerRankName(UUID playerId) {
         if (playerId == null) return "Unknown";
         PlayerRankData data = playerRanks.get(playerId);
+        RankData defaultRank = registry.getDefaultRank();
         return data != null ? data.getRankName() : (defaultRank != null ? defaultRank.getName() : "Unknown");
     }
 
     public String getPlayerPrefix(UUID playerId) {
         if (playerId == null) return "";
         PlayerRankData playerData = playerRanks.get(playerId);
+        RankRegistry snapshot = registry;
         if (playerData != null) {
-            RankData rankData = getRank(playerData.getRankName());
+            RankData rankData = snapshot.get(playerData.getRankName());
             if (rankData != null) {
                 return rankData.getPrefix();
             }
         }
+        RankData defaultRank = snapshot.getDefaultRank();
         return defaultRank != null ? defaultRank.getPrefix() : "";
     }
 
     public String getPlayerSuffix(UUID playerId) {
         if (playerId == null) return "";
         PlayerRankData playerData = playerRanks.get(playerId);
+        RankRegistry snapshot = registry;
         if (playerData != null) {
-            RankData rankData = getRank(playerData.getRankName());
+            RankData rankData = snapshot.get(playerData.getRankName());
             if (rankData != null) {
                 return rankData.getSuffix();
             }
         }
+        RankData defaultRank = snapshot.getDefaultRank();
         return defaultRank != null ? defaultRank.getSuffix() : "";
     }
 
     public int getPlayerWeight(UUID playerId) {
         if (playerId == null) return 1;
         PlayerRankData playerData = playerRanks.get(playerId);
+        RankRegistry snapshot = registry;
         if (playerData != null) {
-            RankData rankData = getRank(playerData.getRankName());
+            RankData rankData = snapshot.get(playerData.getRankName());
             if (rankData != null) {
                 return rankData.getWeight();
             }
         }
+        RankData defaultRank = snapshot.getDefaultRank();
         return defaultRank != null ? defaultRank.getWeight() : 1;
     }
 
@@ -1127,6 +1363,7 @@ public class RankManager {
         if (data != null) {
             return Arrays.asList(data.getRankName());
         }
+        RankData defaultRank = registry.getDefaultRank();
         return defaultRank != null ? Arrays.asList(defaultRank.getName()) : new ArrayList<>();
     }
 
@@ -1142,24 +1379,49 @@ public class RankManager {
     }
 
     /**
-     * Check if any players need rank expiration processing
+     * Expire every cached rank that is due now (the expiry scheduler also does this every tick)
      */
     public void processRankExpirations() {
-        List<UUID> expiredPlayers = new ArrayList<>();
+        expiryScheduler.processDue();
+    }
 
-        for (Map.Entry<UUID, PlayerRankData> entry : playerRanks.entrySet()) {
-            PlayerRankData data = entry.getValue();
-            if (data.getTimeExpires() != null && TimeUtils.hasExpired(data.getTimeExpires())) {
-                expiredPlayers.add(entry.getKey());
+    /**
+     * Called for each rank the expiry sweeper deleted from storage
+     */
+    public void handleExpiredInStorage(PlayerRankData expired) {
+        UUID playerId = expired.getPlayerId();
+        PlayerRankData cached = playerRanks.get(playerId);
+
+        if (cached != null) {
+            // Only act if the player still holds that exact rank here
+            if (Objects.equals(cached.getRankName(), expired.getRankName())
+                    && cached.getTimeExpires() == expired.getTimeExpires()) {
+                expirePlayerRank(playerId);
             }
+            return;
         }
 
-        for (UUID playerId : expiredPlayers) {
-            Player player = Bukkit.getPlayer(playerId);
-            if (player != null && player.isOnline()) {
-                plugin.debug("Processing rank expiration for " + player.getName());
-                removePlayerRank(playerId);
-            }
+        // Not loaded on this server, let the others refresh
+        if (plugin.getSyncManager() != null) {
+            plugin.getSyncManager().syncRankRemoval(playerId, expired.getPlayerName());
+        }
+    }
+
+    /**
+     * Called by the expiry scheduler when a temporary rank lapses
+     */
+    private void expirePlayerRank(UUID playerId) {
+        PlayerRankData rankData = playerRanks.get(playerId);
+        if (rankData == null || !rankData.hasExpired()) {
+            return;
+        }
+
+        plugin.debug("Rank " + rankData.getRankName() + " expired for player " + rankData.getPlayerName());
+        removePlayerRank(playerId);
+
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null && player.isOnline()) {
+            player.sendMessage(MessageUtils.replacePlaceholders(MessageUtils.RANK_EXPIRED, "rank", rankData.getRankName()));
         }
     }
 
@@ -1167,19 +1429,20 @@ public class RankManager {
      * Validate configuration integrity
      */
     public boolean validateConfiguration() {
-        if (ranks.isEmpty()) {
+        RankRegistry snapshot = registry;
+        if (snapshot.isEmpty()) {
             plugin.error("No ranks configured!");
             return false;
         }
 
-        if (defaultRank == null) {
+        if (snapshot.getDefaultRank() == null) {
             plugin.error("No default rank configured!");
             return false;
         }
 
         // Check for weight conflicts
         Map<Integer, List<String>> weightGroups = new HashMap<>();
-        for (RankData rank : ranks.values()) {
+        for (RankData rank : snapshot.getRanks()) {
             weightGroups.computeIfAbsent(rank.getWeight(), k -> new ArrayList<>()).add(rank.getName());
         }
 
@@ -1269,6 +1532,13 @@ public class RankManager {
         }
     }
 
+    /**
+     * Permission recalculation counters
+     */
+    public PermissionRecalculator getPermissionRecalculator() {
+        return permissionRecalculator;
+    }
+
     /**
      * NEW: Get version info for debugging
      */
@@ -1277,6 +1547,33 @@ public class RankManager {
                 " | Old: " + isOldMinecraft +
                 " | Very Old: " + isVeryOldMinecraft +
                 " | Players: " + playerRanks.size() +
-                " | Attachments: " + permissionAttachments.size();
+                " | Attachments: " + permissionAttachments.size() +
+                " | Recalculations: " + permissionRecalculator.getPerformed() +
+                " (saved " + permissionRecalculator.getSaved() + ")";
+    }
+
+    /**
+     * Pre-logins sharing one bulk query; playerIds is guarded by preloadLock
+     */
+    private static final class PreloadBatch {
+        private final long openedAt = System.nanoTime();
+        private final Set<UUID> playerIds = new HashSet<>();
+        private final CompletableFuture<Map<UUID, PlayerRankData>> result = new CompletableFuture<>();
+    }
+
+    /**
+     * Pre-login result waiting for its join, rankData is null when the player has no stored rank
+     */
+    private static final class PreloadedRank {
+        private final PlayerRankData rankData;
+        private final long createdAt = System.currentTimeMillis();
+
+        private PreloadedRank(PlayerRankData rankData) {
+            this.rankData = rankData;
+        }
+
+        private boolean isStale() {
+            return System.currentTimeMillis() - createdAt > PRELOAD_TTL_MILLIS;
+        }
     }
 }
@@ -0,0 +1,139 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the plugin folder and reloads ranks.yml after it changes on disk.
+ * Editors and deploy tools often write a file several times in a row, so the reload
+ * only starts once no change was seen for the debounce period. Opt-in via reload.watch-ranks-file.
+ */
+public class RanksFileWatcher {
+
+    private static final String RANKS_FILE = "ranks.yml";
+
+    private final Rankcorex plugin;
+    private final long debounceMillis;
+    private volatile WatchService watchService;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    public RanksFileWatcher(Rankcorex plugin) {
+        this.plugin = plugin;
+        this.debounceMillis = Math.max(50L, plugin.getConfig().getLong("reload.watch-debounce", 1000L));
+    }
+
+    public void start() {
+        if (!plugin.getConfig().getBoolean("reload.watch-ranks-file", false)) {
+            plugin.debug("ranks.yml watcher disabled");
+            return;
+        }
+
+        Path folder = plugin.getDataFolder().toPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.error("Could not watch " + folder + " for ranks.yml changes: " + e.getMessage());
+            closeQuietly();
+            return;
+        }
+
+        thread = new Thread(this::watch, "RankCorex-RanksWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        plugin.log("Watching ranks.yml for changes (debounce " + debounceMillis + "ms)");
+    }
+
+    public void stop() {
+        stopped = true;
+        closeQuietly();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void watch() {
+        WatchService service = watchService;
+        long changedAt = 0L; // 0 = no change waiting
+
+        try {
+            while (!stopped) {
+                WatchKey key;
+                if (changedAt == 0L) {
+                    key = service.take();
+                } else {
+                    long wait = changedAt + debounceMillis - System.currentTimeMillis();
+                    key = wait > 0 ? service.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+
+                if (key != null) {
+                    if (touchesRanksFile(key)) {
+                        changedAt = System.currentTimeMillis();
+                    }
+                    if (!key.reset()) {
+                        plugin.error("Plugin folder is no longer accessible, stopped watching ranks.yml");
+                        return;
+                    }
+                    continue;
+                }
+
+                // Quiet for the whole debounce period
+                changedAt = 0L;
+                triggerReload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private boolean touchesRanksFile(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true; // Events were lost, check to be safe
+            } else if (event.context() instanceof Path && RANKS_FILE.equals(((Path) event.context()).getFileName().toString())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    private void triggerReload() {
+        if (stopped || !plugin.isEnabled()) {
+            return;
+        }
+
+        plugin.debug("ranks.yml changed on disk, reloading");
+        Bukkit.getScheduler().runTask(plugin, () -> plugin.getRankManager().reloadRanksAsync(null, loaded -> {
+            if (loaded) {
+                plugin.log("Reloaded ranks.yml after a change on disk");
+            } else {
+                plugin.error("ranks.yml changed on disk but could not be loaded, keeping the current ranks");
+            }
+        }));
+    }
+
+    private void closeQuietly() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+    }
+}
\ No newline at end of file
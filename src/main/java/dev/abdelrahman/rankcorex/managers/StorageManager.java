@@ -2,25 +2,37 @@ package dev.abdelrahman.rankcorex.managers;
 
 import dev.abdelrahman.rankcorex.Rankcorex;
 import dev.abdelrahman.rankcorex.models.PlayerRankData;
-import dev.abdelrahman.rankcorex.models.RankData;
+import dev.abdelrahman.rankcorex.storage.JournalStorage;
+import dev.abdelrahman.rankcorex.storage.MappedStorage;
+import dev.abdelrahman.rankcorex.storage.MySQLStorage;
+import dev.abdelrahman.rankcorex.storage.PendingWrite;
+import dev.abdelrahman.rankcorex.storage.PlayerStorage;
+import dev.abdelrahman.rankcorex.storage.SQLiteStorage;
+import dev.abdelrahman.rankcorex.storage.WriteBehindQueue;
+import dev.abdelrahman.rankcorex.storage.YamlStorage;
 import dev.abdelrahman.rankcorex.utils.TimeUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 
-import java.io.File;
-import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class StorageManager {
 
+    private static final String THREAD_PREFIX = "RankCorex-Storage-";
+
     private final Rankcorex plugin;
     private final String storageType;
-    private Connection connection;
-    private File playersFile;
-    private FileConfiguration playersConfig;
+    private PlayerStorage storage;
+    private ThreadPoolExecutor executor;
+    private WriteBehindQueue writeBehind;
 
     public StorageManager(Rankcorex plugin) {
         this.plugin = plugin;
@@ -30,214 +42,249 @@ public class StorageManager {
     public boolean initialize() {
         plugin.debug("Initializing storage manager with type: " + storageType);
 
-        if (storageType.equals("mysql")) {
-            return initializeMySQL();
-        } else {
-            return initializeYAML();
+        switch (storageType) {
+            case "mysql":
+                storage = new MySQLStorage(plugin);
+                break;
+            case "sqlite":
+                storage = new SQLiteStorage(plugin);
+                break;
+            case "journal":
+                storage = new JournalStorage(plugin);
+                break;
+            case "mapped":
+                storage = new MappedStorage(plugin);
+                break;
+            default:
+                storage = new YamlStorage(plugin);
+                break;
         }
-    }
 
-    private boolean initializeYAML() {
-        try {
-            playersFile = new File(plugin.getDataFolder(), "players.yml");
-            if (!playersFile.exists()) {
-                playersFile.createNewFile();
-            }
-            playersConfig = YamlConfiguration.loadConfiguration(playersFile);
-            plugin.debug("YAML storage initialized successfully");
-            return true;
-        } catch (Exception e) {
-            plugin.error("Failed to initialize YAML storage: " + e.getMessage());
-            return false;
+        boolean initialized = storage.initialize();
+        if (initialized) {
+            initializeExecutor();
+            initializeWriteBehind();
         }
+        return initialized;
     }
 
-    private boolean initializeMySQL() {
-        try {
-            String host = plugin.getConfig().getString("storage.mysql.host", "localhost");
-            int port = plugin.getConfig().getInt("storage.mysql.port", 3306);
-            String database = plugin.getConfig().getString("storage.mysql.database", "rankcorex");
-            String username = plugin.getConfig().getString("storage.mysql.username", "root");
-            String password = plugin.getConfig().getString("storage.mysql.password", "password");
-
-            String url = "jdbc:mysql://" + host + ":" + port + "/" + database + "?autoReconnect=true&useSSL=false";
-            connection = DriverManager.getConnection(url, username, password);
-
-            createTables();
-            plugin.debug("MySQL storage initialized successfully");
-            return true;
-        } catch (SQLException e) {
-            plugin.error("Failed to initialize MySQL storage: " + e.getMessage());
-            return false;
+    /**
+     * Create the dedicated storage executor so blocking I/O stays off the common pool
+     */
+    private void initializeExecutor() {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("storage.executor");
+
+        // One thread per pooled connection for MySQL, a single writer for file backends
+        int threads = section != null ? section.getInt("threads", 0) : 0;
+        if (threads <= 0) {
+            threads = storage.getPreferredThreads();
         }
-    }
+        int queueSize = Math.max(1, section != null ? section.getInt("queue-size", 1000) : 1000);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // When the queue is full, producers off the main thread wait for space, which slows them
+        // down without queueing unbounded. The main thread (and storage threads, which would
+        // deadlock waiting on themselves) get a failed future instead: storage I/O never runs there.
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, (task, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("Storage executor is shut down");
+            }
+            if (Bukkit.isPrimaryThread() || Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+                throw new RejectedExecutionException("Storage queue full (" + queueSize + " tasks)");
+            }
+
+            plugin.debug("Storage queue full, " + Thread.currentThread().getName() + " waiting for space");
+            try {
+                pool.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for storage queue space", e);
+            }
+            // Shut down while we were waiting: nothing would run it
+            if (pool.isShutdown() && pool.getQueue().remove(task)) {
+                throw new RejectedExecutionException("Storage executor is shut down");
+            }
+        });
 
-    private void createTables() throws SQLException {
-        String playersTable = "CREATE TABLE IF NOT EXISTS rankcorex_players (" +
-                "uuid VARCHAR(36) PRIMARY KEY, " +
-                "username VARCHAR(16) NOT NULL, " +
-                "rank_name VARCHAR(50) NOT NULL, " +
-                "time_given VARCHAR(20) NOT NULL, " +
-                "time_expires VARCHAR(20) NULL" +
-                ")";
+        plugin.debug("Storage executor started (threads: " + threads + ", queue: " + queueSize + ")");
+    }
 
-        try (PreparedStatement stmt = connection.prepareStatement(playersTable)) {
-            stmt.executeUpdate();
+    /**
+     * Start the write-behind queue that coalesces rank writes per player
+     */
+    private void initializeWriteBehind() {
+        if (!plugin.getConfig().getBoolean("storage.write-behind.enabled", true)) {
+            plugin.debug("Write-behind disabled, rank changes are written immediately");
+            return;
         }
 
-        plugin.debug("MySQL tables created/verified");
+        long interval = plugin.getConfig().getLong("storage.write-behind.flush-interval", 1000L);
+        int batchSize = plugin.getConfig().getInt("storage.write-behind.max-batch-size", 500);
+
+        writeBehind = new WriteBehindQueue(plugin, storage::writeBatch, executor, interval, batchSize);
+        writeBehind.start();
     }
 
     public CompletableFuture<PlayerRankData> getPlayerRank(UUID playerId) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (storageType.equals("mysql")) {
-                return getPlayerRankMySQL(playerId);
-            } else {
-                return getPlayerRankYAML(playerId);
+        // Serve unflushed changes first so readers never see an older value
+        if (writeBehind != null) {
+            PendingWrite write = writeBehind.getPending(playerId);
+            if (write != null) {
+                PlayerRankData data = write.getData();
+                return CompletableFuture.completedFuture(data != null && !data.hasExpired() ? data : null);
             }
-        });
+        }
+
+        return supplyAsync(() -> storage.getPlayerRank(playerId));
     }
 
-    private PlayerRankData getPlayerRankMySQL(UUID playerId) {
-        try {
-            String query = "SELECT * FROM rankcorex_players WHERE uuid = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
-                stmt.setString(1, playerId.toString());
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    String username = rs.getString("username");
-                    String rankName = rs.getString("rank_name");
-                    String timeGiven = rs.getString("time_given");
-                    String timeExpires = rs.getString("time_expires");
-
-                    PlayerRankData data = new PlayerRankData(playerId, username, rankName, timeGiven, timeExpires);
-
-                    // Check if expired
-                    if (data.hasExpired()) {
-                        removePlayerRankMySQL(playerId);
-                        return null; // Will fall back to default rank
-                    }
-
-                    return data;
-                }
+    /**
+     * Load ranks for many players with as few storage round-trips as the backend allows
+     * @return future of rank data keyed by UUID (players without a stored rank are absent)
+     */
+    public CompletableFuture<Map<UUID, PlayerRankData>> getPlayerRanks(Collection<UUID> playerIds) {
+        Map<UUID, PlayerRankData> pendingData = new HashMap<>();
+        List<UUID> toLoad = new ArrayList<>();
+
+        for (UUID playerId : playerIds) {
+            PendingWrite write = writeBehind != null ? writeBehind.getPending(playerId) : null;
+            if (write == null) {
+                toLoad.add(playerId);
+            } else if (write.getData() != null && !write.getData().hasExpired()) {
+                // Unflushed changes win over whatever is stored
+                pendingData.put(playerId, write.getData());
             }
-        } catch (SQLException e) {
-            plugin.error("Failed to get player rank from MySQL: " + e.getMessage());
         }
-        return null;
+
+        if (toLoad.isEmpty()) {
+            return CompletableFuture.completedFuture(pendingData);
+        }
+
+        return supplyAsync(() -> {
+            Map<UUID, PlayerRankData> result = storage.getPlayerRanks(toLoad);
+            result.putAll(pendingData);
+            return result;
+        });
     }
 
-    private PlayerRankData getPlayerRankYAML(UUID playerId) {
-        try {
-            ConfigurationSection playerSection = playersConfig.getConfigurationSection("players." + playerId.toString());
-            if (playerSection != null) {
-                String username = playerSection.getString("username");
-                String rankName = playerSection.getString("rank");
-                String timeGiven = playerSection.getString("given");
-                String timeExpires = playerSection.getString("expires");
-
-                PlayerRankData data = new PlayerRankData(playerId, username, rankName, timeGiven, timeExpires);
-
-                // Check if expired
-                if (data.hasExpired()) {
-                    removePlayerRankYAML(playerId);
-                    return null; // Will fall back to default rank
-                }
+    /**
+     * Delete up to limit lapsed ranks from storage
+     * @return future of every row storage deleted (see hasPendingWrite for players who already have a newer rank)
+     */
+    public CompletableFuture<List<PlayerRankData>> removeExpiredRanks(int limit) {
+        long now = System.currentTimeMillis();
+        return supplyAsync(() -> storage.removeExpired(now, limit));
+    }
 
-                return data;
-            }
-        } catch (Exception e) {
-            plugin.error("Failed to get player rank from YAML: " + e.getMessage());
-        }
-        return null;
+    /**
+     * Whether the player has a change that is not in storage yet
+     */
+    public boolean hasPendingWrite(UUID playerId) {
+        return writeBehind != null && writeBehind.getPending(playerId) != null;
     }
 
-    public CompletableFuture<Void> setPlayerRank(UUID playerId, String username, String rankName, String timeExpires) {
-        return CompletableFuture.runAsync(() -> {
-            String timeGiven = TimeUtils.getCurrentTimestamp();
+    public CompletableFuture<Void> setPlayerRank(UUID playerId, String username, String rankName, long timeExpires) {
+        long timeGiven = TimeUtils.getCurrentTimestamp();
+        PlayerRankData data = new PlayerRankData(playerId, username, rankName, timeGiven, timeExpires);
 
-            if (storageType.equals("mysql")) {
-                setPlayerRankMySQL(playerId, username, rankName, timeGiven, timeExpires);
-            } else {
-                setPlayerRankYAML(playerId, username, rankName, timeGiven, timeExpires);
-            }
-        });
+        if (writeBehind != null) {
+            PendingWrite write = PendingWrite.set(data);
+            writeBehind.enqueue(write);
+            return write.getWritten();
+        }
+
+        return runAsync(() -> storage.setPlayerRank(data));
     }
 
-    private void setPlayerRankMySQL(UUID playerId, String username, String rankName, String timeGiven, String timeExpires) {
-        try {
-            String query = "REPLACE INTO rankcorex_players (uuid, username, rank_name, time_given, time_expires) VALUES (?, ?, ?, ?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, username);
-                stmt.setString(3, rankName);
-                stmt.setString(4, timeGiven);
-                stmt.setString(5, timeExpires);
-                stmt.executeUpdate();
-            }
-            plugin.debug("Set rank for " + username + " to " + rankName + " in MySQL");
-        } catch (SQLException e) {
-            plugin.error("Failed to set player rank in MySQL: " + e.getMessage());
+    public CompletableFuture<Void> removePlayerRank(UUID playerId) {
+        if (writeBehind != null) {
+            PendingWrite write = PendingWrite.remove(playerId);
+            writeBehind.enqueue(write);
+            return write.getWritten();
         }
+
+        return runAsync(() -> storage.removePlayerRank(playerId));
     }
 
-    private void setPlayerRankYAML(UUID playerId, String username, String rankName, String timeGiven, String timeExpires) {
+    /**
+     * Run a storage task on the executor; a rejected task fails the future instead of running here
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
         try {
-            String path = "players." + playerId.toString();
-            playersConfig.set(path + ".username", username);
-            playersConfig.set(path + ".rank", rankName);
-            playersConfig.set(path + ".given", timeGiven);
-            playersConfig.set(path + ".expires", timeExpires);
-
-            playersConfig.save(playersFile);
-            plugin.debug("Set rank for " + username + " to " + rankName + " in YAML");
-        } catch (Exception e) {
-            plugin.error("Failed to set player rank in YAML: " + e.getMessage());
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
     }
 
-    public CompletableFuture<Void> removePlayerRank(UUID playerId) {
-        return CompletableFuture.runAsync(() -> {
-            if (storageType.equals("mysql")) {
-                removePlayerRankMySQL(playerId);
-            } else {
-                removePlayerRankYAML(playerId);
-            }
+    private CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
         });
     }
 
-    private void removePlayerRankMySQL(UUID playerId) {
-        try {
-            String query = "DELETE FROM rankcorex_players WHERE uuid = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(query)) {
-                stmt.setString(1, playerId.toString());
-                stmt.executeUpdate();
-            }
-            plugin.debug("Removed rank for player " + playerId + " from MySQL");
-        } catch (SQLException e) {
-            plugin.error("Failed to remove player rank from MySQL: " + e.getMessage());
+    /**
+     * Write a player's unflushed change now (needed before other servers re-read it)
+     * @return future completed once storage holds the player's latest change
+     */
+    public CompletableFuture<Void> flushPlayer(UUID playerId) {
+        if (writeBehind == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return writeBehind.flushNow(playerId);
     }
 
-    private void removePlayerRankYAML(UUID playerId) {
-        try {
-            playersConfig.set("players." + playerId.toString(), null);
-            playersConfig.save(playersFile);
-            plugin.debug("Removed rank for player " + playerId + " from YAML");
-        } catch (Exception e) {
-            plugin.error("Failed to remove player rank from YAML: " + e.getMessage());
+    public void shutdown() {
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+        shutdownExecutor();
+        if (storage != null) {
+            storage.shutdown();
         }
     }
 
-    public void shutdown() {
-        if (connection != null) {
-            try {
-                connection.close();
-                plugin.debug("MySQL connection closed");
-            } catch (SQLException e) {
-                plugin.error("Failed to close MySQL connection: " + e.getMessage());
+    /**
+     * Stop accepting work and drain queued reads/writes before the backend closes
+     */
+    private void shutdownExecutor() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        long timeoutSeconds = plugin.getConfig().getLong("storage.executor.shutdown-timeout", 10L);
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                plugin.error("Storage executor did not finish within " + timeoutSeconds + "s, running remaining tasks on shutdown thread");
+                // Take over whatever is still queued so no write is lost
+                List<Runnable> pending = executor.shutdownNow();
+                for (Runnable task : pending) {
+                    task.run();
+                }
             }
+            plugin.debug("Storage executor drained");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.error("Interrupted while draining storage executor: " + e.getMessage());
         }
     }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    public String getStorageType() {
+        return storageType;
+    }
 }
\ No newline at end of file
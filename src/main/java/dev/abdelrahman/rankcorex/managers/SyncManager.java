@@ -41,7 +41,11 @@ public class SyncManager implements PluginMessageListener {
         return true;
     }
 
-    public void syncRankChange(UUID playerId, String playerName, String rankName, String timeExpires) {
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("global-sync", false);
+    }
+
+    public void syncRankChange(UUID playerId, String playerName, String rankName, long timeExpires) {
         if (!plugin.getConfig().getBoolean("global-sync", false)) {
             return;
         }
@@ -51,7 +55,7 @@ public class SyncManager implements PluginMessageListener {
         out.writeUTF(playerId.toString());
         out.writeUTF(playerName);
         out.writeUTF(rankName);
-        out.writeUTF(timeExpires != null ? timeExpires : "PERMANENT");
+        out.writeUTF(timeExpires > 0 ? String.valueOf(timeExpires) : "PERMANENT");
 
         sendPluginMessage(out.toByteArray());
 
@@ -77,13 +81,17 @@ public class SyncManager implements PluginMessageListener {
         }
     }
 
-    public void syncConfigReload() {
+    /**
+     * @param ranksHash content hash of the rank definitions now loaded on this server
+     */
+    public void syncConfigReload(String ranksHash) {
         if (!plugin.getConfig().getBoolean("global-sync", false)) {
             return;
         }
 
         ByteArrayDataOutput out = ByteStreams.newDataOutput();
         out.writeUTF("CONFIG_RELOAD");
+        out.writeUTF(ranksHash);
 
         sendPluginMessage(out.toByteArray());
 
@@ -127,7 +135,7 @@ public class SyncManager implements PluginMessageListener {
                 handleRankRemoveSync(in);
                 break;
             case "CONFIG_RELOAD":
-                handleConfigReloadSync();
+                handleConfigReloadSync(in);
                 break;
             default:
                 plugin.debug("Unknown sync action: " + action);
@@ -190,15 +198,24 @@ public class SyncManager implements PluginMessageListener {
         }
     }
 
-    private void handleConfigReloadSync() {
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            plugin.reloadConfig();
-            plugin.getRankManager().loadRanks();
+    private void handleConfigReloadSync(ByteArrayDataInput in) {
+        String ranksHash = null;
+        try {
+            ranksHash = in.readUTF();
+        } catch (IllegalStateException e) {
+            // Sent by an older version without a hash
+        }
 
-            // Reapply ranks to all online players
-            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-                plugin.getRankManager().applyPlayerRank(onlinePlayer);
+        String expectedHash = ranksHash;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            // Same rank definitions already loaded here, nothing to do
+            if (expectedHash != null && expectedHash.equals(plugin.getRankManager().getRegistry().getHash())) {
+                plugin.debug("Synced reload matches the loaded ranks, skipping");
+                return;
             }
+
+            // Config and ranks are parsed off the main thread, changed ranks reapplied over several ticks
+            plugin.getRankManager().reloadRanksAsync(null, true, loaded -> { });
         });
 
         if (notifySync) {
@@ -9,10 +9,15 @@ public class PlayerRankData {
     private final UUID playerId;
     private final String playerName;
     private final String rankName;
-    private final String timeGiven;
-    private final String timeExpires;
+    // Epoch milliseconds, timeExpires is 0 for permanent ranks
+    private final long timeGiven;
+    private final long timeExpires;
 
-    public PlayerRankData(UUID playerId, String playerName, String rankName, String timeGiven, String timeExpires) {
+    // Last rendered durations, reused until the displayed minute changes
+    private volatile RenderedTime remainingText;
+    private volatile RenderedTime sinceGivenText;
+
+    public PlayerRankData(UUID playerId, String playerName, String rankName, long timeGiven, long timeExpires) {
         this.playerId = playerId;
         this.playerName = playerName;
         this.rankName = rankName;
@@ -32,16 +37,16 @@ public class PlayerRankData {
         return rankName;
     }
 
-    public String getTimeGiven() {
+    public long getTimeGiven() {
         return timeGiven;
     }
 
-    public String getTimeExpires() {
+    public long getTimeExpires() {
         return timeExpires;
     }
 
     public boolean isPermanent() {
-        return timeExpires == null || timeExpires.isEmpty();
+        return timeExpires <= 0;
     }
 
     public boolean hasExpired() {
@@ -49,11 +54,33 @@ public class PlayerRankData {
     }
 
     public String getTimeRemaining() {
-        return TimeUtils.getTimeRemaining(timeExpires);
+        if (isPermanent()) {
+            return "Permanent";
+        }
+
+        long remaining = timeExpires - TimeUtils.currentTimeMillis();
+        long minute = remaining < 0 ? -1 : remaining / 60000L;
+        RenderedTime cached = remainingText;
+        if (cached == null || cached.minute != minute) {
+            cached = new RenderedTime(minute, TimeUtils.formatRemaining(remaining));
+            remainingText = cached;
+        }
+        return cached.text;
     }
 
     public String getTimeSinceGiven() {
-        return TimeUtils.getTimeSince(timeGiven);
+        if (timeGiven <= 0) {
+            return "Unknown";
+        }
+
+        long elapsed = TimeUtils.currentTimeMillis() - timeGiven;
+        long minute = Math.max(0L, elapsed) / 60000L;
+        RenderedTime cached = sinceGivenText;
+        if (cached == null || cached.minute != minute) {
+            cached = new RenderedTime(minute, TimeUtils.formatElapsed(elapsed));
+            sinceGivenText = cached;
+        }
+        return cached.text;
     }
 
     @Override
@@ -66,4 +93,14 @@ public class PlayerRankData {
                 ", expired=" + hasExpired() +
                 '}';
     }
+
+    private static final class RenderedTime {
+        private final long minute;
+        private final String text;
+
+        private RenderedTime(long minute, String text) {
+            this.minute = minute;
+            this.text = text;
+        }
+    }
 }
\ No newline at end of file
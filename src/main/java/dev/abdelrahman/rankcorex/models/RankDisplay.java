@@ -0,0 +1,135 @@
+package dev.abdelrahman.rankcorex.models;
+
+import dev.abdelrahman.rankcorex.utils.MessageUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A rank's nametag and tablist text, colorized, gapped and truncated once per registry
+ * snapshot. Only the tablist length check depends on the player, so that is all that
+ * runs per apply.
+ */
+public final class RankDisplay {
+
+    private static final int NAMETAG_LIMIT = 16;
+    private static final int TABLIST_LIMIT = 40;
+
+    private final String nametagPrefix;
+    private final String nametagSuffix;
+
+    // Tablist text around the player name, gaps included
+    private final String tablistBefore;
+    private final String tablistAfter;
+
+    // Inputs for the rare over-length case
+    private final String colorizedPrefix;
+    private final String colorizedSuffix;
+    private final String strippedPrefix;
+    private final String strippedSuffix;
+    private final Map<Integer, String[]> truncated = new ConcurrentHashMap<>();
+
+    public RankDisplay(RankData rank) {
+        String rawPrefix = rank.getPrefix();
+        String rawSuffix = rank.getSuffix();
+
+        // Nametag: add spaces for gaps if prefix/suffix exist and don't already end/start with space
+        String prefix = rawPrefix.isEmpty() || rawPrefix.endsWith(" ") ? rawPrefix : rawPrefix + " ";
+        String suffix = rawSuffix.isEmpty() || rawSuffix.startsWith(" ") ? rawSuffix : " " + rawSuffix;
+        this.nametagPrefix = processNametagText(prefix, true);
+        this.nametagSuffix = processNametagText(suffix, false);
+
+        // Tablist
+        this.colorizedPrefix = MessageUtils.colorize(rawPrefix);
+        this.colorizedSuffix = MessageUtils.colorize(rawSuffix);
+        this.strippedPrefix = MessageUtils.stripColor(colorizedPrefix);
+        this.strippedSuffix = MessageUtils.stripColor(colorizedSuffix);
+        this.tablistBefore = colorizedPrefix.isEmpty() || colorizedPrefix.endsWith(" ") ? colorizedPrefix : colorizedPrefix + " ";
+        this.tablistAfter = colorizedSuffix.isEmpty() || colorizedSuffix.startsWith(" ") ? colorizedSuffix : " " + colorizedSuffix;
+    }
+
+    public String getNametagPrefix() {
+        return nametagPrefix;
+    }
+
+    public String getNametagSuffix() {
+        return nametagSuffix;
+    }
+
+    /**
+     * Tablist name for a player, shortened to 40 characters if needed
+     */
+    public String getTablistName(String playerName) {
+        if (tablistBefore.length() + playerName.length() + tablistAfter.length() <= TABLIST_LIMIT) {
+            return tablistBefore + playerName + tablistAfter;
+        }
+
+        // Space left next to the name (minus 2 for gaps)
+        int availableSpace = TABLIST_LIMIT - playerName.length() - 2;
+        if (availableSpace <= 0) {
+            return playerName.length() > TABLIST_LIMIT ? playerName.substring(0, TABLIST_LIMIT) : playerName;
+        }
+
+        String[] parts = truncated.computeIfAbsent(availableSpace, this::truncate);
+        return parts[0] + playerName + parts[1];
+    }
+
+    /**
+     * Text before and after the name for the given space. Priority: prefix > player name > suffix.
+     */
+    private String[] truncate(int availableSpace) {
+        int prefixLength = strippedPrefix.length();
+        int suffixLength = strippedSuffix.length();
+
+        if (prefixLength + suffixLength <= availableSpace) {
+            return new String[]{tablistBefore, tablistAfter};
+        }
+
+        // Truncate the suffix first, leaving some space for it
+        if (prefixLength <= availableSpace - 2) {
+            int remainingSpace = availableSpace - prefixLength;
+            String truncatedSuffix = colorizedSuffix;
+            if (suffixLength > remainingSpace) {
+                truncatedSuffix = remainingSpace > 2
+                        ? MessageUtils.colorize(strippedSuffix.substring(0, remainingSpace - 2) + "..")
+                        : "";
+            }
+
+            String before = colorizedPrefix.endsWith(" ") ? colorizedPrefix : colorizedPrefix + " ";
+            String after = truncatedSuffix.isEmpty() || truncatedSuffix.startsWith(" ") ? truncatedSuffix : " " + truncatedSuffix;
+            return new String[]{before, after};
+        }
+
+        // Prefix too long: truncate it and skip the suffix
+        if (availableSpace > 4) {
+            return new String[]{MessageUtils.colorize(strippedPrefix.substring(0, availableSpace - 2) + "..") + " ", ""};
+        }
+
+        // Last resort: just the player name
+        return new String[]{"", ""};
+    }
+
+    /**
+     * Colorize and fit a nametag prefix/suffix into 16 characters
+     */
+    private static String processNametagText(String text, boolean isPrefix) {
+        String colored = MessageUtils.colorize(text);
+        if (colored.length() <= NAMETAG_LIMIT) {
+            return colored;
+        }
+
+        // Try to preserve important parts
+        String stripped = MessageUtils.stripColor(colored);
+        if (stripped.length() <= 14) {
+            // Try to fit with some colors
+            return colored.substring(0, NAMETAG_LIMIT);
+        }
+
+        // Truncate intelligently
+        if (isPrefix) {
+            return MessageUtils.colorize(stripped.substring(0, 14) + "..");
+        } else {
+            return MessageUtils.colorize(".." + stripped.substring(Math.max(0, stripped.length() - 14)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package dev.abdelrahman.rankcorex.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Immutable snapshot of the loaded rank definitions.
+ * A new instance is built on every load and published in one swap,
+ * so readers never see a half-populated registry.
+ */
+public final class RankRegistry {
+
+    /**
+     * Parts of a rank that can change independently on reload
+     */
+    public enum Aspect {
+        /** Prefix, suffix or weight: nametag and tablist */
+        DISPLAY,
+        /** Permission nodes */
+        PERMISSIONS
+    }
+
+    public static final RankRegistry EMPTY = new RankRegistry(Collections.<String, RankData>emptyMap(), null);
+
+    private final Map<String, RankData> ranks;
+    private final List<RankData> sorted;
+    private final RankData defaultRank;
+    private final Map<String, Map<String, Boolean>> compiledPermissions;
+    private final Map<String, RankDisplay> displays;
+    private final String hash;
+
+    /**
+     * @param ranks ranks keyed by lower-case name
+     * @param defaultRank the rank given to players without one, may be null
+     */
+    public RankRegistry(Map<String, RankData> ranks, RankData defaultRank) {
+        Map<String, RankData> copy = new LinkedHashMap<>(ranks);
+        List<RankData> byWeight = new ArrayList<>(copy.values());
+        byWeight.sort((r1, r2) -> Integer.compare(r2.getWeight(), r1.getWeight()));
+
+        Map<String, Map<String, Boolean>> compiled = new HashMap<>();
+        Map<String, RankDisplay> rendered = new HashMap<>();
+        for (Map.Entry<String, RankData> entry : copy.entrySet()) {
+            compiled.put(entry.getKey(), compile(entry.getValue().getPermissions()));
+            rendered.put(entry.getKey(), new RankDisplay(entry.getValue()));
+        }
+
+        this.ranks = Collections.unmodifiableMap(copy);
+        this.sorted = Collections.unmodifiableList(byWeight);
+        this.defaultRank = defaultRank;
+        this.compiledPermissions = Collections.unmodifiableMap(compiled);
+        this.displays = Collections.unmodifiableMap(rendered);
+        this.hash = computeHash();
+    }
+
+    /**
+     * SHA-256 over every rank definition in name order, equal for equal configs
+     */
+    private String computeHash() {
+        StringBuilder canonical = new StringBuilder();
+        for (String key : new TreeSet<>(ranks.keySet())) {
+            RankData rank = ranks.get(key);
+            canonical.append(key).append('\0')
+                    .append(rank.getPrefix()).append('\0')
+                    .append(rank.getSuffix()).append('\0')
+                    .append(rank.getWeight()).append('\0');
+            for (Map.Entry<String, Boolean> permission : compiledPermissions.get(key).entrySet()) {
+                canonical.append(permission.getValue() ? '+' : '-').append(permission.getKey()).append('\0');
+            }
+            canonical.append('\n');
+        }
+        canonical.append("default=").append(defaultRank != null ? defaultRank.getName().toLowerCase() : "");
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256; fall back to a weaker hash just in case
+            return Integer.toHexString(canonical.toString().hashCode());
+        }
+    }
+
+    /**
+     * What changed per rank (lower-case name) compared to an older snapshot.
+     * Added and removed ranks count as changed in every aspect; unchanged ranks are left out.
+     */
+    public Map<String, Set<Aspect>> diff(RankRegistry previous) {
+        Map<String, Set<Aspect>> changes = new HashMap<>();
+        Set<String> names = new HashSet<>(ranks.keySet());
+        names.addAll(previous.ranks.keySet());
+
+        for (String name : names) {
+            RankData now = ranks.get(name);
+            RankData before = previous.ranks.get(name);
+            if (now == null || before == null) {
+                changes.put(name, EnumSet.allOf(Aspect.class));
+                continue;
+            }
+
+            Set<Aspect> aspects = EnumSet.noneOf(Aspect.class);
+            if (!now.getPrefix().equals(before.getPrefix())
+                    || !now.getSuffix().equals(before.getSuffix())
+                    || now.getWeight() != before.getWeight()) {
+                aspects.add(Aspect.DISPLAY);
+            }
+            if (!getCompiledPermissions(name).equals(previous.getCompiledPermissions(name))) {
+                aspects.add(Aspect.PERMISSIONS);
+            }
+            if (!aspects.isEmpty()) {
+                changes.put(name, aspects);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Turn "node" / "-node" entries into node -> value pairs.
+     * Nodes are lower-cased like Bukkit stores them and interned, so players share the strings.
+     */
+    public static Map<String, Boolean> compile(List<String> permissions) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (permissions == null) {
+            return Collections.unmodifiableMap(result);
+        }
+
+        for (String permission : permissions) {
+            if (permission == null) continue;
+            String node = permission.trim();
+            boolean value = true;
+            if (node.startsWith("-")) {
+                value = false;
+                node = node.substring(1).trim();
+            }
+            if (node.isEmpty() || node.length() > 255 || node.contains("..")
+                    || node.startsWith(".") || node.endsWith(".")) {
+                continue;
+            }
+            result.put(node.toLowerCase().intern(), value);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    public RankData get(String rankName) {
+        return rankName == null ? null : ranks.get(rankName.toLowerCase());
+    }
+
+    public boolean contains(String rankName) {
+        return rankName != null && ranks.containsKey(rankName.toLowerCase());
+    }
+
+    public Collection<RankData> getRanks() {
+        return ranks.values();
+    }
+
+    /**
+     * Ranks ordered by weight, highest first
+     */
+    public List<RankData> getSorted() {
+        return sorted;
+    }
+
+    public RankData getDefaultRank() {
+        return defaultRank;
+    }
+
+    /**
+     * Compiled permission values for a rank, empty if the rank is unknown
+     */
+    public Map<String, Boolean> getCompiledPermissions(String rankName) {
+        Map<String, Boolean> compiled = rankName == null ? null : compiledPermissions.get(rankName.toLowerCase());
+        return compiled != null ? compiled : Collections.<String, Boolean>emptyMap();
+    }
+
+    /**
+     * Pre-rendered nametag and tablist text for a rank, null if the rank is unknown
+     */
+    public RankDisplay getDisplay(String rankName) {
+        return rankName == null ? null : displays.get(rankName.toLowerCase());
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public int size() {
+        return ranks.size();
+    }
+
+    public boolean isEmpty() {
+        return ranks.isEmpty();
+    }
+}
\ No newline at end of file
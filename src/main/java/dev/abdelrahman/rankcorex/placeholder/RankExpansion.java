@@ -4,6 +4,7 @@ import dev.abdelrahman.rankcorex.Rankcorex;
 import dev.abdelrahman.rankcorex.managers.RankManager;
 import dev.abdelrahman.rankcorex.models.PlayerRankData;
 import dev.abdelrahman.rankcorex.utils.MessageUtils;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -84,19 +85,24 @@ public class RankExpansion extends PlaceholderExpansion {
 
             case "expiry":
                 String expiry = playerData != null ? playerData.getTimeRemaining() : "Permanent";
-                plugin.debug("Returning expiry: " + expiry);
+                // Requested every tick by scoreboards, don't build the debug line unless it's printed
+                if (plugin.isDebugMode()) {
+                    plugin.debug("Returning expiry: " + expiry);
+                }
                 return expiry;
 
             case "time_given":
-                String timeGiven = (playerData != null && playerData.getTimeGiven() != null)
-                        ? playerData.getTimeGiven()
+                String timeGiven = (playerData != null && playerData.getTimeGiven() > 0)
+                        ? TimeUtils.formatTimestamp(playerData.getTimeGiven())
                         : "Unknown";
                 plugin.debug("Returning time_given: " + timeGiven);
                 return timeGiven;
 
             case "time_since_given":
                 String timeSince = playerData != null ? playerData.getTimeSinceGiven() : "Unknown";
-                plugin.debug("Returning time_since_given: " + timeSince);
+                if (plugin.isDebugMode()) {
+                    plugin.debug("Returning time_since_given: " + timeSince);
+                }
                 return timeSince;
 
             case "all_ranks":
@@ -0,0 +1,531 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal backend.
+ * Every change is appended to players.journal as one small checksummed record
+ * instead of rewriting the whole players file. Appends are fsynced in groups and
+ * the journal is periodically compacted into players.snapshot in the background.
+ * On startup the snapshot is loaded and the journal tail is replayed on top of it.
+ */
+public class JournalStorage implements PlayerStorage {
+
+    private static final int SNAPSHOT_MAGIC = 0x52435853; // "RCXS"
+    private static final int FORMAT_VERSION = 2;
+    // Version 1 snapshots and OP_SET_LEGACY records store timestamps as formatted strings
+    private static final int LEGACY_FORMAT_VERSION = 1;
+    private static final byte OP_SET_LEGACY = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_SET = 3;
+    private static final int MAX_RECORD_SIZE = 1 << 16;
+
+    private final Rankcorex plugin;
+    private final Map<UUID, PlayerRankData> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private File snapshotFile;
+    private File journalFile;
+    private File compactingFile;
+    private FileChannel journalChannel;
+    private ScheduledExecutorService scheduler;
+
+    private long fsyncIntervalMillis;
+    private long compactThreshold;
+    private long journalRecords;
+    private boolean dirty;
+
+    public JournalStorage(Rankcorex plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean initialize() {
+        try {
+            File dataFolder = plugin.getDataFolder();
+            if (!dataFolder.exists()) {
+                dataFolder.mkdirs();
+            }
+
+            snapshotFile = new File(dataFolder, "players.snapshot");
+            journalFile = new File(dataFolder, "players.journal");
+            compactingFile = new File(dataFolder, "players.journal.old");
+
+            fsyncIntervalMillis = Math.max(0L, plugin.getConfig().getLong("storage.journal.fsync-interval", 200L));
+            compactThreshold = Math.max(1000L, plugin.getConfig().getLong("storage.journal.compact-threshold", 50000L));
+
+            boolean fresh = !snapshotFile.exists() && !journalFile.exists() && !compactingFile.exists();
+
+            long start = System.currentTimeMillis();
+            readSnapshot();
+            long replayed = replayJournal(compactingFile) + replayJournal(journalFile);
+            journalRecords = replayed;
+
+            journalChannel = FileChannel.open(journalFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+            if (fresh) {
+                importYaml();
+            }
+
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "RankCorex-Journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (fsyncIntervalMillis > 0) {
+                scheduler.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            if (journalRecords >= compactThreshold || compactingFile.exists()) {
+                scheduler.execute(this::compact);
+            }
+
+            plugin.debug("Journal storage initialized with " + entries.size() + " players (" + replayed +
+                    " journal records replayed in " + (System.currentTimeMillis() - start) + "ms)");
+            return true;
+        } catch (Exception e) {
+            plugin.error("Failed to initialize journal storage: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public PlayerRankData getPlayerRank(UUID playerId) {
+        PlayerRankData data = entries.get(playerId);
+
+        // Check if expired
+        if (data != null && data.hasExpired()) {
+            removePlayerRank(playerId);
+            return null; // Will fall back to default rank
+        }
+
+        return data;
+    }
+
+    @Override
+    public void setPlayerRank(PlayerRankData data) {
+        try {
+            append(encodeSet(data), 1, false, () -> entries.put(data.getPlayerId(), data));
+            plugin.debug("Set rank for " + data.getPlayerName() + " to " + data.getRankName() + " in journal");
+        } catch (IOException e) {
+            plugin.error("Failed to set player rank in journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removePlayerRank(UUID playerId) {
+        try {
+            append(encodeRemove(playerId), 1, false, () -> entries.remove(playerId));
+            plugin.debug("Removed rank for player " + playerId + " from journal");
+        } catch (IOException e) {
+            plugin.error("Failed to remove player rank from journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean writeBatch(List<PendingWrite> batch) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(batch.size() * 96);
+            for (PendingWrite write : batch) {
+                buffer.write(write.isRemoval() ? encodeRemove(write.getPlayerId()) : encodeSet(write.getData()));
+            }
+
+            // A batch is already a group, sync it right away
+            append(buffer.toByteArray(), batch.size(), true, () -> {
+                for (PendingWrite write : batch) {
+                    if (write.isRemoval()) {
+                        entries.remove(write.getPlayerId());
+                    } else {
+                        entries.put(write.getPlayerId(), write.getData());
+                    }
+                }
+            });
+            plugin.debug("Appended batch of " + batch.size() + " rank changes to journal");
+            return true;
+        } catch (IOException e) {
+            plugin.error("Failed to append rank batch to journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<PlayerRankData> removeExpired(long now, int limit) {
+        List<PlayerRankData> expired = new ArrayList<>();
+        for (PlayerRankData data : entries.values()) {
+            if (expired.size() >= limit) break;
+
+            if (!data.isPermanent() && data.getTimeExpires() <= now) {
+                expired.add(data);
+            }
+        }
+
+        if (expired.isEmpty()) {
+            return expired;
+        }
+
+        List<PendingWrite> removals = new ArrayList<>(expired.size());
+        for (PlayerRankData data : expired) {
+            removals.add(PendingWrite.remove(data.getPlayerId()));
+        }
+        return writeBatch(removals) ? expired : new ArrayList<>();
+    }
+
+    /**
+     * Append encoded records to the journal and apply them to the in-memory state
+     * Both happen under the write lock, so a compaction never copies state that is
+     * missing records it has already rotated out of the journal.
+     */
+    private void append(byte[] records, int count, boolean forceSync, Runnable apply) throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            while (buffer.hasRemaining()) {
+                journalChannel.write(buffer);
+            }
+            journalRecords += count;
+            apply.run();
+
+            if (forceSync || fsyncIntervalMillis == 0) {
+                journalChannel.force(false);
+                dirty = false;
+            } else {
+                dirty = true;
+            }
+
+            if (journalRecords >= compactThreshold && !compacting.get() && scheduler != null) {
+                scheduler.execute(this::compact);
+            }
+        }
+    }
+
+    /**
+     * Group fsync of everything appended since the last sync
+     */
+    private void syncQuietly() {
+        synchronized (writeLock) {
+            if (!dirty) {
+                return;
+            }
+            try {
+                journalChannel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                plugin.error("Failed to sync rank journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rewrite the snapshot from the in-memory state and drop the replayed journal
+     */
+    private void compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            Map<UUID, PlayerRankData> state;
+
+            synchronized (writeLock) {
+                // Rotate the journal; the copied state covers everything written so far
+                try {
+                    journalChannel.force(false);
+                    journalChannel.close();
+                    dirty = false;
+
+                    if (compactingFile.exists()) {
+                        // A previous compaction did not finish, keep its records together
+                        appendFile(journalFile, compactingFile);
+                        Files.delete(journalFile.toPath());
+                    } else {
+                        Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    journalRecords = 0;
+                } finally {
+                    if (!journalChannel.isOpen()) {
+                        journalChannel = FileChannel.open(journalFile.toPath(),
+                                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                }
+                state = new HashMap<>(entries);
+            }
+
+            writeSnapshot(state);
+            Files.deleteIfExists(compactingFile.toPath());
+
+            plugin.debug("Compacted rank journal into snapshot of " + state.size() + " players in " +
+                    (System.currentTimeMillis() - start) + "ms");
+        } catch (IOException e) {
+            plugin.error("Failed to compact rank journal: " + e.getMessage());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!snapshotFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("players.snapshot is not a RankCorex snapshot");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION && version != LEGACY_FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                PlayerRankData data = version == LEGACY_FORMAT_VERSION ? readLegacyEntry(in) : readEntry(in);
+                entries.put(data.getPlayerId(), data);
+            }
+        }
+    }
+
+    private void writeSnapshot(Map<UUID, PlayerRankData> state) throws IOException {
+        File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(state.size());
+            for (PlayerRankData data : state.values()) {
+                writeEntry(out, data);
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+
+        try {
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Apply journal records in order, stopping at (and cutting off) a torn tail
+     * @return number of records replayed
+     */
+    private long replayJournal(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        long records = 0;
+        long validBytes = 0;
+        CRC32 crc = new CRC32();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                long checksum;
+                try {
+                    checksum = in.readInt() & 0xFFFFFFFFL;
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+
+                applyRecord(payload);
+                validBytes += 8 + length;
+                records++;
+            }
+        }
+
+        if (validBytes < file.length()) {
+            plugin.error("Discarding " + (file.length() - validBytes) + " bytes of incomplete records from " + file.getName());
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validBytes);
+            }
+        }
+
+        return records;
+    }
+
+    private void applyRecord(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        if (op == OP_SET) {
+            PlayerRankData data = readEntry(in);
+            entries.put(data.getPlayerId(), data);
+        } else if (op == OP_SET_LEGACY) {
+            PlayerRankData data = readLegacyEntry(in);
+            entries.put(data.getPlayerId(), data);
+        } else if (op == OP_REMOVE) {
+            entries.remove(new UUID(in.readLong(), in.readLong()));
+        } else {
+            throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    private byte[] encodeSet(PlayerRankData data) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(80);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(OP_SET);
+        writeEntry(out, data);
+        return frame(payload.toByteArray());
+    }
+
+    private byte[] encodeRemove(UUID playerId) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(17);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(OP_REMOVE);
+        out.writeLong(playerId.getMostSignificantBits());
+        out.writeLong(playerId.getLeastSignificantBits());
+        return frame(payload.toByteArray());
+    }
+
+    /**
+     * Prefix a payload with its length and CRC32 so torn writes can be detected
+     */
+    private byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    private void writeEntry(DataOutputStream out, PlayerRankData data) throws IOException {
+        out.writeLong(data.getPlayerId().getMostSignificantBits());
+        out.writeLong(data.getPlayerId().getLeastSignificantBits());
+        out.writeUTF(nullToEmpty(data.getPlayerName()));
+        out.writeUTF(nullToEmpty(data.getRankName()));
+        out.writeLong(data.getTimeGiven());
+        out.writeLong(data.getTimeExpires());
+    }
+
+    private PlayerRankData readEntry(DataInputStream in) throws IOException {
+        UUID playerId = new UUID(in.readLong(), in.readLong());
+        String username = emptyToNull(in.readUTF());
+        String rankName = emptyToNull(in.readUTF());
+        long timeGiven = in.readLong();
+        long timeExpires = in.readLong();
+        return new PlayerRankData(playerId, username, rankName, timeGiven, timeExpires);
+    }
+
+    private PlayerRankData readLegacyEntry(DataInputStream in) throws IOException {
+        UUID playerId = new UUID(in.readLong(), in.readLong());
+        String username = emptyToNull(in.readUTF());
+        String rankName = emptyToNull(in.readUTF());
+        long timeGiven = TimeUtils.parseStoredTimestamp(in.readUTF(), false);
+        long timeExpires = TimeUtils.parseStoredTimestamp(in.readUTF(), true);
+        return new PlayerRankData(playerId, username, rankName, timeGiven, timeExpires);
+    }
+
+    private void appendFile(File source, File target) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(false);
+        }
+    }
+
+    /**
+     * Seed the journal backend from an existing players.yml on first start
+     */
+    private void importYaml() throws IOException {
+        List<PendingWrite> imported = YamlStorage.readExisting(plugin);
+        if (imported.isEmpty()) {
+            return;
+        }
+
+        if (!writeBatch(imported)) {
+            throw new IOException("Could not import players.yml into the journal");
+        }
+        plugin.log("Imported " + imported.size() + " players from players.yml into journal storage");
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                // Let a running compaction finish writing its snapshot
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (writeLock) {
+            if (journalChannel != null && journalChannel.isOpen()) {
+                try {
+                    journalChannel.force(false);
+                    journalChannel.close();
+                    plugin.debug("Rank journal closed");
+                } catch (IOException e) {
+                    plugin.error("Failed to close rank journal: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,637 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-mapped binary backend.
+ * players.dat is an open-addressing hash table of fixed-size records keyed by UUID,
+ * so a lookup is a single off-heap probe and nothing is parsed on startup.
+ *
+ * Layout: a header (magic, version, capacity, counters, resize flag and the rank name dictionary)
+ * followed by capacity slots of RECORD_SIZE bytes:
+ *   0  msb (long)      8  lsb (long)      16 given epoch ms (long)
+ *   24 expires epoch ms (long, 0 = permanent)
+ *   32 rank id (short) 34 state (byte)    35 name length (byte)   36 name (16 bytes)
+ */
+public class MappedStorage implements PlayerStorage {
+
+    private static final int MAGIC = 0x5243584D; // "RCXM"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 16384;
+    private static final int HEADER_CAPACITY = 8;
+    private static final int HEADER_SIZE_COUNT = 12;
+    private static final int HEADER_TOMBSTONES = 16;
+    private static final int HEADER_RANK_COUNT = 20;
+    // 1 while the table is being rebuilt from players.dat.resize
+    private static final int HEADER_STAGED = 24;
+    private static final int DICTIONARY_OFFSET = 64;
+    private static final int DICTIONARY_ENTRY_SIZE = 40;
+    private static final int MAX_RANKS = (HEADER_SIZE - DICTIONARY_OFFSET) / DICTIONARY_ENTRY_SIZE;
+
+    private static final int RECORD_SIZE = 64;
+    private static final int OFFSET_MSB = 0;
+    private static final int OFFSET_LSB = 8;
+    private static final int OFFSET_GIVEN = 16;
+    private static final int OFFSET_EXPIRES = 24;
+    private static final int OFFSET_RANK = 32;
+    private static final int OFFSET_STATE = 34;
+    private static final int OFFSET_NAME_LENGTH = 35;
+    private static final int OFFSET_NAME = 36;
+    private static final int MAX_NAME_LENGTH = 16;
+
+    private static final byte STATE_EMPTY = 0;
+    private static final byte STATE_USED = 1;
+    private static final byte STATE_DELETED = 2;
+
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    // Largest power of two whose table still fits in a single mapping
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    private final Rankcorex plugin;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Short> rankIds = new HashMap<>();
+    private final List<String> rankNames = new ArrayList<>();
+
+    private File dataFile;
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private int tombstones;
+
+    private ScheduledExecutorService scheduler;
+    private long syncIntervalMillis;
+    private volatile boolean dirty;
+
+    public MappedStorage(Rankcorex plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean initialize() {
+        try {
+            File dataFolder = plugin.getDataFolder();
+            if (!dataFolder.exists()) {
+                dataFolder.mkdirs();
+            }
+
+            dataFile = new File(dataFolder, "players.dat");
+            syncIntervalMillis = Math.max(0L, plugin.getConfig().getLong("storage.mapped.sync-interval", 1000L));
+            boolean fresh = !dataFile.exists();
+
+            if (fresh) {
+                int initialCapacity = plugin.getConfig().getInt("storage.mapped.initial-capacity", 65536);
+                createTable(dataFile, tableCapacityFor(initialCapacity));
+            }
+            openTable(dataFile);
+
+            if (buffer.getInt(HEADER_STAGED) != 0) {
+                File stagingFile = stagingFile();
+                if (!stagingFile.exists()) {
+                    throw new IOException("players.dat was left mid-resize and " + stagingFile.getName() + " is missing");
+                }
+                plugin.log("Finishing an interrupted resize of players.dat");
+                rebuild(stagingFile);
+            }
+
+            if (fresh) {
+                List<PendingWrite> imported = YamlStorage.readExisting(plugin);
+                if (!imported.isEmpty()) {
+                    if (!writeBatch(imported)) {
+                        throw new IOException("Could not import players.yml into players.dat");
+                    }
+                    plugin.log("Imported " + imported.size() + " players from players.yml into mapped storage");
+                }
+            }
+
+            if (syncIntervalMillis > 0) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "RankCorex-Mapped-Sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                scheduler.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+
+            plugin.debug("Mapped storage initialized (" + size + " players, " + capacity + " slots)");
+            return true;
+        } catch (Exception e) {
+            plugin.error("Failed to initialize mapped storage: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public PlayerRankData getPlayerRank(UUID playerId) {
+        PlayerRankData data;
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+            data = slot < 0 ? null : readRecord(playerId, slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Check if expired
+        if (data != null && data.hasExpired()) {
+            removePlayerRank(playerId);
+            return null; // Will fall back to default rank
+        }
+
+        return data;
+    }
+
+    @Override
+    public void setPlayerRank(PlayerRankData data) {
+        lock.writeLock().lock();
+        try {
+            put(data);
+            markDirty();
+            plugin.debug("Set rank for " + data.getPlayerName() + " to " + data.getRankName() + " in mapped storage");
+        } catch (IOException e) {
+            plugin.error("Failed to set player rank in mapped storage: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removePlayerRank(UUID playerId) {
+        lock.writeLock().lock();
+        try {
+            delete(playerId);
+            markDirty();
+            plugin.debug("Removed rank for player " + playerId + " from mapped storage");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean writeBatch(List<PendingWrite> batch) {
+        lock.writeLock().lock();
+        try {
+            for (PendingWrite write : batch) {
+                if (write.isRemoval()) {
+                    delete(write.getPlayerId());
+                } else {
+                    put(write.getData());
+                }
+            }
+            buffer.force();
+            dirty = false;
+            plugin.debug("Wrote batch of " + batch.size() + " rank changes to mapped storage");
+            return true;
+        } catch (IOException e) {
+            plugin.error("Failed to write rank batch to mapped storage: " + e.getMessage());
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PlayerRankData> removeExpired(long now, int limit) {
+        List<PlayerRankData> removed = new ArrayList<>();
+
+        lock.writeLock().lock();
+        try {
+            // Expiry is a plain long in every record, no parsing needed
+            for (int slot = 0; slot < capacity && removed.size() < limit; slot++) {
+                int offset = slotOffset(slot);
+                if (buffer.get(offset + OFFSET_STATE) != STATE_USED) continue;
+
+                long expires = buffer.getLong(offset + OFFSET_EXPIRES);
+                if (expires == 0 || expires > now) continue;
+
+                UUID playerId = new UUID(buffer.getLong(offset + OFFSET_MSB), buffer.getLong(offset + OFFSET_LSB));
+                removed.add(readRecord(playerId, slot));
+                buffer.put(offset + OFFSET_STATE, STATE_DELETED);
+                size--;
+                tombstones++;
+            }
+
+            if (!removed.isEmpty()) {
+                writeCounters();
+                buffer.force();
+                dirty = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * Insert or overwrite a record, growing the table first if needed
+     */
+    private void put(PlayerRankData data) throws IOException {
+        if (size + tombstones + 1 > capacity * MAX_LOAD_FACTOR) {
+            resize();
+        }
+
+        short rankId = rankIdFor(data.getRankName());
+        long msb = data.getPlayerId().getMostSignificantBits();
+        long lsb = data.getPlayerId().getLeastSignificantBits();
+
+        int mask = capacity - 1;
+        int index = hash(msb, lsb) & mask;
+        int firstDeleted = -1;
+
+        while (true) {
+            byte state = buffer.get(slotOffset(index) + OFFSET_STATE);
+            if (state == STATE_EMPTY) {
+                break;
+            }
+            if (state == STATE_DELETED) {
+                if (firstDeleted < 0) {
+                    firstDeleted = index;
+                }
+            } else if (matches(index, msb, lsb)) {
+                writeRecord(index, msb, lsb, data, rankId);
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (firstDeleted >= 0) {
+            index = firstDeleted;
+            tombstones--;
+        }
+        writeRecord(index, msb, lsb, data, rankId);
+        size++;
+        writeCounters();
+    }
+
+    private void delete(UUID playerId) {
+        int slot = findSlot(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        if (slot < 0) {
+            return;
+        }
+
+        buffer.put(slotOffset(slot) + OFFSET_STATE, STATE_DELETED);
+        size--;
+        tombstones++;
+        writeCounters();
+    }
+
+    /**
+     * Probe for a key
+     * @return the slot index, or -1 if the key is absent
+     */
+    private int findSlot(long msb, long lsb) {
+        int mask = capacity - 1;
+        int index = hash(msb, lsb) & mask;
+
+        for (int probes = 0; probes < capacity; probes++) {
+            byte state = buffer.get(slotOffset(index) + OFFSET_STATE);
+            if (state == STATE_EMPTY) {
+                return -1;
+            }
+            if (state == STATE_USED && matches(index, msb, lsb)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean matches(int index, long msb, long lsb) {
+        int offset = slotOffset(index);
+        return buffer.getLong(offset + OFFSET_MSB) == msb && buffer.getLong(offset + OFFSET_LSB) == lsb;
+    }
+
+    private PlayerRankData readRecord(UUID playerId, int index) {
+        int offset = slotOffset(index);
+        long given = buffer.getLong(offset + OFFSET_GIVEN);
+        long expires = buffer.getLong(offset + OFFSET_EXPIRES);
+        int rankId = buffer.getShort(offset + OFFSET_RANK);
+
+        int nameLength = Math.min(MAX_NAME_LENGTH, buffer.get(offset + OFFSET_NAME_LENGTH) & 0xFF);
+        byte[] name = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            name[i] = buffer.get(offset + OFFSET_NAME + i);
+        }
+
+        String rankName = rankId >= 0 && rankId < rankNames.size() ? rankNames.get(rankId) : null;
+        return new PlayerRankData(playerId, nameLength > 0 ? new String(name, StandardCharsets.UTF_8) : null,
+                rankName, given, expires);
+    }
+
+    private void writeRecord(int index, long msb, long lsb, PlayerRankData data, short rankId) {
+        int offset = slotOffset(index);
+        buffer.putLong(offset + OFFSET_MSB, msb);
+        buffer.putLong(offset + OFFSET_LSB, lsb);
+        buffer.putLong(offset + OFFSET_GIVEN, data.getTimeGiven());
+        buffer.putLong(offset + OFFSET_EXPIRES, data.getTimeExpires());
+        buffer.putShort(offset + OFFSET_RANK, rankId);
+
+        // Minecraft names are at most 16 ASCII characters
+        byte[] name = data.getPlayerName() != null ? data.getPlayerName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int nameLength = Math.min(MAX_NAME_LENGTH, name.length);
+        buffer.put(offset + OFFSET_NAME_LENGTH, (byte) nameLength);
+        for (int i = 0; i < MAX_NAME_LENGTH; i++) {
+            buffer.put(offset + OFFSET_NAME + i, i < nameLength ? name[i] : 0);
+        }
+
+        // State last so a half-written record is never visible as used
+        buffer.put(offset + OFFSET_STATE, STATE_USED);
+    }
+
+    /**
+     * Get (or register) the dictionary id of a rank name
+     */
+    private short rankIdFor(String rankName) throws IOException {
+        Short id = rankIds.get(rankName);
+        if (id != null) {
+            return id;
+        }
+
+        if (rankNames.size() >= MAX_RANKS) {
+            throw new IOException("Rank dictionary is full (" + MAX_RANKS + " ranks)");
+        }
+        byte[] bytes = rankName.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= DICTIONARY_ENTRY_SIZE) {
+            throw new IOException("Rank name too long for mapped storage: " + rankName);
+        }
+
+        short newId = (short) rankNames.size();
+        int offset = DICTIONARY_OFFSET + newId * DICTIONARY_ENTRY_SIZE;
+        buffer.put(offset, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + 1 + i, bytes[i]);
+        }
+
+        rankNames.add(rankName);
+        rankIds.put(rankName, newId);
+        buffer.putInt(HEADER_RANK_COUNT, rankNames.size());
+        return newId;
+    }
+
+    /**
+     * Rehash every live record in place, growing players.dat first if the table is full.
+     * Live records are staged in players.dat.resize (and the header flagged) before the
+     * table is touched, so a crash or failed grow mid-way is finished from the staging file.
+     */
+    private void resize() throws IOException {
+        // Only grow when the table is really full, otherwise just clear tombstones
+        int newCapacity = size + 1 > capacity * MAX_LOAD_FACTOR / 2 ? capacity * 2 : capacity;
+        if (newCapacity > MAX_CAPACITY) {
+            if (size + 1 > capacity * MAX_LOAD_FACTOR) {
+                throw new IOException("Mapped storage is full (" + size + " players)");
+            }
+            newCapacity = capacity;
+        }
+
+        long start = System.currentTimeMillis();
+        int oldCapacity = capacity;
+        File stagingFile = stagingFile();
+        stageRecords(stagingFile, newCapacity);
+
+        buffer.putInt(HEADER_STAGED, 1);
+        buffer.force();
+
+        try {
+            rebuild(stagingFile);
+        } catch (IOException e) {
+            // Could not grow the file: put the records back at the current size so the store stays usable
+            if (capacity == oldCapacity && newCapacity != oldCapacity) {
+                stageRecords(stagingFile, oldCapacity);
+                rebuild(stagingFile);
+            }
+            throw e;
+        }
+
+        plugin.debug("Resized mapped storage from " + oldCapacity + " to " + capacity + " slots in " +
+                (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private File stagingFile() {
+        return new File(dataFile.getParentFile(), dataFile.getName() + ".resize");
+    }
+
+    /**
+     * Copy every live record, and the capacity they are meant for, into the staging file
+     */
+    private void stageRecords(File target, int tableCapacity) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(target);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+            data.writeInt(tableCapacity);
+            data.writeInt(size);
+
+            byte[] record = new byte[RECORD_SIZE];
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = slotOffset(slot);
+                if (buffer.get(offset + OFFSET_STATE) != STATE_USED) {
+                    continue;
+                }
+                for (int i = 0; i < RECORD_SIZE; i++) {
+                    record[i] = buffer.get(offset + i);
+                }
+                data.write(record);
+            }
+
+            data.flush();
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Clear the table, grow it to the staged capacity and re-insert the staged records
+     */
+    private void rebuild(File stagingFile) throws IOException {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(new FileInputStream(stagingFile)))) {
+            int tableCapacity = data.readInt();
+            int count = data.readInt();
+            if (Integer.bitCount(tableCapacity) != 1 || tableCapacity > MAX_CAPACITY || count > tableCapacity) {
+                throw new IOException(stagingFile.getName() + " is corrupt");
+            }
+
+            long length = HEADER_SIZE + (long) tableCapacity * RECORD_SIZE;
+            if (buffer.capacity() < length) {
+                // Same file, larger mapping; the old mapping is released when it is collected
+                file.setLength(length);
+                buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            }
+
+            capacity = tableCapacity;
+            for (int slot = 0; slot < capacity; slot++) {
+                buffer.put(slotOffset(slot) + OFFSET_STATE, STATE_EMPTY);
+            }
+
+            int mask = capacity - 1;
+            byte[] record = new byte[RECORD_SIZE];
+            for (int n = 0; n < count; n++) {
+                data.readFully(record);
+                ByteBuffer source = ByteBuffer.wrap(record);
+                int index = hash(source.getLong(OFFSET_MSB), source.getLong(OFFSET_LSB)) & mask;
+                while (buffer.get(slotOffset(index) + OFFSET_STATE) != STATE_EMPTY) {
+                    index = (index + 1) & mask;
+                }
+
+                int offset = slotOffset(index);
+                for (int i = 0; i < RECORD_SIZE; i++) {
+                    buffer.put(offset + i, record[i]);
+                }
+            }
+
+            size = count;
+            tombstones = 0;
+            buffer.putInt(HEADER_CAPACITY, capacity);
+            writeCounters();
+            buffer.force();
+        }
+
+        buffer.putInt(HEADER_STAGED, 0);
+        buffer.force();
+        if (!stagingFile.delete()) {
+            plugin.debug("Could not delete " + stagingFile.getName());
+        }
+    }
+
+    private void createTable(File target, int tableCapacity) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(target, "rw")) {
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + (long) tableCapacity * RECORD_SIZE);
+            raf.seek(0);
+            raf.writeInt(MAGIC);
+            raf.writeInt(FORMAT_VERSION);
+            raf.writeInt(tableCapacity);
+            raf.writeInt(0); // size
+            raf.writeInt(0); // tombstones
+            raf.writeInt(0); // rank count
+        }
+    }
+
+    /**
+     * Map a table file and load its header and rank dictionary
+     */
+    private void openTable(File source) throws IOException {
+        file = new RandomAccessFile(source, "rw");
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+
+        if (buffer.getInt(0) != MAGIC) {
+            file.close();
+            throw new IOException(source.getName() + " is not a RankCorex data file");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            file.close();
+            throw new IOException("Unsupported data file version " + version);
+        }
+
+        capacity = buffer.getInt(HEADER_CAPACITY);
+        size = buffer.getInt(HEADER_SIZE_COUNT);
+        tombstones = buffer.getInt(HEADER_TOMBSTONES);
+        if (Integer.bitCount(capacity) != 1 || file.length() < HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+            file.close();
+            throw new IOException(source.getName() + " has an invalid table size");
+        }
+
+        int rankCount = buffer.getInt(HEADER_RANK_COUNT);
+        if (rankCount > 0 || rankNames.isEmpty()) {
+            rankNames.clear();
+            rankIds.clear();
+            for (int id = 0; id < rankCount; id++) {
+                int offset = DICTIONARY_OFFSET + id * DICTIONARY_ENTRY_SIZE;
+                int length = buffer.get(offset) & 0xFF;
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = buffer.get(offset + 1 + i);
+                }
+                String rankName = new String(bytes, StandardCharsets.UTF_8);
+                rankNames.add(rankName);
+                rankIds.put(rankName, (short) id);
+            }
+        }
+    }
+
+    private void writeCounters() {
+        buffer.putInt(HEADER_SIZE_COUNT, size);
+        buffer.putInt(HEADER_TOMBSTONES, tombstones);
+    }
+
+    private int slotOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ (lsb * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 31;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableCapacityFor(int expectedPlayers) {
+        int needed = (int) Math.min(MAX_CAPACITY, Math.max(1024L, (long) (expectedPlayers / MAX_LOAD_FACTOR) + 1));
+        int tableCapacity = Integer.highestOneBit(needed);
+        return tableCapacity < needed ? Math.min(MAX_CAPACITY, tableCapacity << 1) : tableCapacity;
+    }
+
+    private void markDirty() {
+        if (syncIntervalMillis == 0) {
+            buffer.force();
+        } else {
+            dirty = true;
+        }
+    }
+
+    private void syncQuietly() {
+        if (!dirty) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            dirty = false;
+        } catch (Exception e) {
+            plugin.error("Failed to sync players.dat: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (file != null) {
+                buffer.force();
+                file.close();
+                plugin.debug("Mapped storage closed");
+            }
+        } catch (IOException e) {
+            plugin.error("Failed to close players.dat: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
\ No newline at end of file
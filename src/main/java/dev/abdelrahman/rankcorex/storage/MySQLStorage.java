@@ -0,0 +1,94 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import dev.abdelrahman.rankcorex.Rankcorex;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Stores player ranks in MySQL through a pooled DataSource (network use)
+ */
+public class MySQLStorage extends SqlStorage {
+
+    public MySQLStorage(Rankcorex plugin) {
+        super(plugin, "MySQL");
+    }
+
+    @Override
+    protected HikariConfig createPoolConfig() {
+        String host = plugin.getConfig().getString("storage.mysql.host", "localhost");
+        int port = plugin.getConfig().getInt("storage.mysql.port", 3306);
+        String database = plugin.getConfig().getString("storage.mysql.database", "rankcorex");
+        String username = plugin.getConfig().getString("storage.mysql.username", "root");
+        String password = plugin.getConfig().getString("storage.mysql.password", "password");
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("RankCorex-MySQL");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false");
+        config.setUsername(username);
+        config.setPassword(password);
+        applyPoolSettings(config);
+        return config;
+    }
+
+    /**
+     * Apply the storage.mysql.pool settings to the connection pool
+     */
+    private void applyPoolSettings(HikariConfig config) {
+        ConfigurationSection pool = plugin.getConfig().getConfigurationSection("storage.mysql.pool");
+
+        // Blocking JDBC calls scale with cores and with the time spent waiting on the database
+        int defaultMaxSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        int maxSize = pool != null ? pool.getInt("maximum-size", 0) : 0;
+        if (maxSize <= 0) {
+            maxSize = defaultMaxSize;
+        }
+        int minIdle = pool != null ? pool.getInt("minimum-idle", 2) : 2;
+
+        poolMaxSize = maxSize;
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(Math.max(0, Math.min(minIdle, maxSize)));
+        config.setConnectionTimeout(pool != null ? pool.getLong("connection-timeout", 5000L) : 5000L);
+        config.setValidationTimeout(pool != null ? pool.getLong("validation-timeout", 3000L) : 3000L);
+        config.setLeakDetectionThreshold(pool != null ? pool.getLong("leak-detection-threshold", 0L) : 0L);
+        config.setIdleTimeout(pool != null ? pool.getLong("idle-timeout", 600000L) : 600000L);
+        config.setMaxLifetime(pool != null ? pool.getLong("max-lifetime", 1800000L) : 1800000L);
+
+        // Driver-side statement caching, every storage call reuses the same handful of queries
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        plugin.debug("MySQL pool configured (max: " + maxSize + ", min idle: " + minIdle + ")");
+    }
+
+    @Override
+    protected String[] getCreateTableStatements() {
+        return new String[]{
+                "CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                        "uuid BINARY(16) NOT NULL PRIMARY KEY, " +
+                        "username VARCHAR(16) NOT NULL, " +
+                        "rank_name VARCHAR(50) NOT NULL, " +
+                        "time_given BIGINT NOT NULL, " +
+                        "time_expires BIGINT NULL, " +
+                        "INDEX idx_rankcorex_expires (time_expires), " +
+                        "INDEX idx_rankcorex_rank (rank_name)" +
+                        ")"
+        };
+    }
+
+    @Override
+    protected String getUpsertQuery() {
+        // Updates the row in place instead of REPLACE's delete + insert
+        return "INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE username = VALUES(username), rank_name = VALUES(rank_name), " +
+                "time_given = VALUES(time_given), time_expires = VALUES(time_expires)";
+    }
+
+    @Override
+    protected String getInsertIfAbsentQuery() {
+        return "INSERT IGNORE INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+    }
+}
\ No newline at end of file
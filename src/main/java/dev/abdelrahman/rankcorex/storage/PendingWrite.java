@@ -0,0 +1,55 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A rank mutation waiting to be written to storage.
+ * A write without data is a removal.
+ */
+public class PendingWrite {
+
+    private final UUID playerId;
+    private final PlayerRankData data;
+    // Completes once this change (or a newer one for the same player) is in storage
+    private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+    private PendingWrite(UUID playerId, PlayerRankData data) {
+        this.playerId = playerId;
+        this.data = data;
+    }
+
+    public static PendingWrite set(PlayerRankData data) {
+        return new PendingWrite(data.getPlayerId(), data);
+    }
+
+    public static PendingWrite remove(UUID playerId) {
+        return new PendingWrite(playerId, null);
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public PlayerRankData getData() {
+        return data;
+    }
+
+    public CompletableFuture<Void> getWritten() {
+        return written;
+    }
+
+    public boolean isRemoval() {
+        return data == null;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingWrite{" +
+                "playerId=" + playerId +
+                ", removal=" + isRemoval() +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A backend that persists player ranks.
+ * All methods are blocking and are only called from the storage executor
+ * (or the shutdown thread), never from the main server thread.
+ */
+public interface PlayerStorage {
+
+    /**
+     * Open files/connections and prepare the schema
+     * @return false if the backend cannot be used
+     */
+    boolean initialize();
+
+    /**
+     * Load a player's rank, removing it if it has already expired
+     * @return the rank data, or null if the player has no stored rank
+     */
+    PlayerRankData getPlayerRank(UUID playerId);
+
+    /**
+     * Load many players at once, removing expired ranks like getPlayerRank
+     * @return rank data keyed by UUID for every player that has a stored rank
+     */
+    default Map<UUID, PlayerRankData> getPlayerRanks(Collection<UUID> playerIds) {
+        Map<UUID, PlayerRankData> result = new HashMap<>();
+        for (UUID playerId : playerIds) {
+            PlayerRankData data = getPlayerRank(playerId);
+            if (data != null) {
+                result.put(playerId, data);
+            }
+        }
+        return result;
+    }
+
+    void setPlayerRank(PlayerRankData data);
+
+    void removePlayerRank(UUID playerId);
+
+    /**
+     * Write a batch of coalesced mutations as one unit
+     * @return false if nothing was written and the batch should be retried
+     */
+    boolean writeBatch(List<PendingWrite> batch);
+
+    /**
+     * Delete up to limit ranks that expired at or before the given time
+     * @return the entries that were deleted
+     */
+    default List<PlayerRankData> removeExpired(long now, int limit) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Number of storage threads this backend can keep busy
+     */
+    default int getPreferredThreads() {
+        return 1;
+    }
+
+    void shutdown();
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import dev.abdelrahman.rankcorex.Rankcorex;
+
+import java.io.File;
+
+/**
+ * Stores player ranks in an embedded SQLite file (single server, no database service)
+ */
+public class SQLiteStorage extends SqlStorage {
+
+    public SQLiteStorage(Rankcorex plugin) {
+        super(plugin, "SQLite");
+    }
+
+    @Override
+    protected HikariConfig createPoolConfig() {
+        File dataFolder = plugin.getDataFolder();
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        File databaseFile = new File(dataFolder, plugin.getConfig().getString("storage.sqlite.file", "players.db"));
+
+        // WAL lets readers run alongside the single writer, so a few connections are enough
+        int poolSize = Math.max(1, plugin.getConfig().getInt("storage.sqlite.pool-size", 4));
+        long busyTimeout = Math.max(0L, plugin.getConfig().getLong("storage.sqlite.busy-timeout", 5000L));
+        String synchronous = plugin.getConfig().getString("storage.sqlite.synchronous", "NORMAL");
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("RankCorex-SQLite");
+        // Bundled with the server, nothing to shade. Works with sqlite-jdbc 3.7.2 (Spigot 1.8.8)
+        // and newer; older drivers predate WAL.
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(busyTimeout + 5000L);
+        // The file never drops connections, keep them for the whole session
+        config.setIdleTimeout(0L);
+        config.setMaxLifetime(0L);
+        // 3.7.x drivers lack the JDBC4 Connection.isValid check Hikari uses otherwise
+        config.setConnectionTestQuery("SELECT 1");
+
+        // Applied by the driver to every new connection
+        config.addDataSourceProperty("synchronous", synchronous);
+        // Wait for the writer instead of failing with SQLITE_BUSY (3.7.x drivers ignore it and wait 3s)
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeout));
+        // Not a driver property: 3.7.x drivers apply those in a batch, which fails on a pragma returning a row
+        config.setConnectionInitSql("PRAGMA journal_mode = WAL");
+
+        poolMaxSize = poolSize;
+        plugin.debug("SQLite pool configured (" + databaseFile.getName() + ", max: " + poolSize + ", synchronous: " + synchronous + ")");
+        return config;
+    }
+
+    @Override
+    protected String[] getCreateTableStatements() {
+        return new String[]{
+                "CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                        "uuid BLOB NOT NULL PRIMARY KEY, " +
+                        "username VARCHAR(16) NOT NULL, " +
+                        "rank_name VARCHAR(50) NOT NULL, " +
+                        "time_given BIGINT NOT NULL, " +
+                        "time_expires BIGINT NULL" +
+                        ")",
+                "CREATE INDEX IF NOT EXISTS idx_rankcorex_expires ON " + TABLE + " (time_expires)",
+                "CREATE INDEX IF NOT EXISTS idx_rankcorex_rank ON " + TABLE + " (rank_name)"
+        };
+    }
+
+    @Override
+    protected String getUpsertQuery() {
+        // The driver bundled with older servers predates ON CONFLICT ... DO UPDATE
+        return "INSERT OR REPLACE INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    protected String getInsertIfAbsentQuery() {
+        return "INSERT OR IGNORE INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+    }
+}
\ No newline at end of file
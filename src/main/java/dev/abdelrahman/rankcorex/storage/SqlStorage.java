@@ -0,0 +1,581 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Shared JDBC logic for the SQL backends (rankcorex_players_v2 table behind a pooled DataSource)
+ *
+ * Schema v2 keys rows by BINARY(16) UUID and stores epoch-millisecond timestamps, with
+ * indexes on time_expires and rank_name. A v1 rankcorex_players table is copied over in
+ * the background; until that finishes, reads fall back to it and removals hit both tables.
+ */
+public abstract class SqlStorage implements PlayerStorage {
+
+    protected static final String TABLE = "rankcorex_players_v2";
+    protected static final String LEGACY_TABLE = "rankcorex_players";
+    protected static final String COLUMNS = "uuid, username, rank_name, time_given, time_expires";
+    private static final int SCHEMA_VERSION = 2;
+    // Stays below SQLite's default limit of 999 bound parameters
+    private static final int IN_CHUNK_SIZE = 500;
+
+    protected final Rankcorex plugin;
+    protected final String name;
+    protected HikariDataSource dataSource;
+    protected int poolMaxSize = 1;
+
+    // Removals hold the read lock, a migration batch the write lock, so a copied row can't come back
+    private final ReentrantReadWriteLock migrationLock = new ReentrantReadWriteLock();
+    private volatile boolean legacyPending;
+    private volatile boolean stopping;
+    private Thread migrationThread;
+
+    protected SqlStorage(Rankcorex plugin, String name) {
+        this.plugin = plugin;
+        this.name = name;
+    }
+
+    /**
+     * Build the pool configuration (URL, driver, pool size) for this database
+     */
+    protected abstract HikariConfig createPoolConfig() throws Exception;
+
+    /**
+     * CREATE statements for the v2 table and its indexes
+     */
+    protected abstract String[] getCreateTableStatements();
+
+    /**
+     * Insert-or-update statement taking (uuid, username, rank_name, time_given, time_expires)
+     */
+    protected abstract String getUpsertQuery();
+
+    /**
+     * Insert statement with the same parameters that leaves existing rows untouched
+     */
+    protected abstract String getInsertIfAbsentQuery();
+
+    @Override
+    public boolean initialize() {
+        try {
+            dataSource = new HikariDataSource(createPoolConfig());
+
+            createTables();
+            startMigrationIfNeeded();
+            plugin.debug(name + " storage initialized successfully");
+            return true;
+        } catch (Exception e) {
+            plugin.error("Failed to initialize " + name + " storage: " + e.getMessage());
+            shutdown();
+            return false;
+        }
+    }
+
+    protected void createTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (String create : getCreateTableStatements()) {
+                stmt.executeUpdate(create);
+            }
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS rankcorex_meta (" +
+                    "meta_key VARCHAR(32) PRIMARY KEY, " +
+                    "meta_value VARCHAR(64) NOT NULL" +
+                    ")");
+        }
+
+        plugin.debug(name + " tables created/verified");
+    }
+
+    @Override
+    public PlayerRankData getPlayerRank(UUID playerId) {
+        PlayerRankData data;
+        try {
+            data = readRow(playerId);
+            if (data == null && legacyPending) {
+                data = readLegacyRow(playerId);
+            }
+        } catch (SQLException e) {
+            plugin.error("Failed to get player rank from " + name + ": " + e.getMessage());
+            return null;
+        }
+
+        // Check if expired (after the read connection went back to the pool)
+        if (data != null && data.hasExpired()) {
+            removePlayerRank(playerId);
+            return null; // Will fall back to default rank
+        }
+
+        return data;
+    }
+
+    private PlayerRankData readRow(UUID playerId) throws SQLException {
+        String query = "SELECT username, rank_name, time_given, time_expires FROM " + TABLE + " WHERE uuid = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setBytes(1, toBytes(playerId));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new PlayerRankData(playerId, rs.getString("username"), rs.getString("rank_name"),
+                        rs.getLong("time_given"),
+                        rs.getLong("time_expires"));
+            }
+        }
+    }
+
+    @Override
+    public Map<UUID, PlayerRankData> getPlayerRanks(Collection<UUID> playerIds) {
+        Map<UUID, PlayerRankData> result = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(playerIds);
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+                List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK_SIZE));
+                readChunk(connection, chunk, result);
+            }
+        } catch (SQLException e) {
+            plugin.error("Failed to get player ranks from " + name + ": " + e.getMessage());
+            return result;
+        }
+
+        if (legacyPending) {
+            for (UUID playerId : ids) {
+                if (result.containsKey(playerId)) continue;
+                try {
+                    PlayerRankData data = readLegacyRow(playerId);
+                    if (data != null) {
+                        result.put(playerId, data);
+                    }
+                } catch (SQLException e) {
+                    plugin.error("Failed to get player rank from " + LEGACY_TABLE + ": " + e.getMessage());
+                }
+            }
+        }
+
+        // Drop expired ranks in one transaction
+        List<PendingWrite> expired = new ArrayList<>();
+        for (PlayerRankData data : result.values()) {
+            if (data.hasExpired()) {
+                expired.add(PendingWrite.remove(data.getPlayerId()));
+            }
+        }
+        if (!expired.isEmpty()) {
+            for (PendingWrite write : expired) {
+                result.remove(write.getPlayerId());
+            }
+            writeBatch(expired);
+        }
+
+        plugin.debug("Loaded " + result.size() + "/" + ids.size() + " player ranks from " + name);
+        return result;
+    }
+
+    @Override
+    public List<PlayerRankData> removeExpired(long now, int limit) {
+        List<PlayerRankData> removed = new ArrayList<>();
+        // Range scan on idx_rankcorex_expires
+        String select = "SELECT " + COLUMNS + " FROM " + TABLE + " WHERE time_expires IS NOT NULL AND time_expires <= ? " +
+                "ORDER BY time_expires LIMIT " + limit;
+        // Only delete the row we read, a rank given in the meantime has a different expiry
+        String delete = "DELETE FROM " + TABLE + " WHERE uuid = ? AND time_expires = ?";
+
+        try (Connection connection = dataSource.getConnection()) {
+            List<PlayerRankData> expired = new ArrayList<>();
+            List<Long> expiries = new ArrayList<>();
+            try (PreparedStatement stmt = connection.prepareStatement(select)) {
+                stmt.setLong(1, now);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID playerId = fromBytes(rs.getBytes("uuid"));
+                        long expires = rs.getLong("time_expires");
+                        expired.add(new PlayerRankData(playerId, rs.getString("username"), rs.getString("rank_name"),
+                                rs.getLong("time_given"), expires));
+                        expiries.add(expires);
+                    }
+                }
+            }
+
+            if (expired.isEmpty()) {
+                return removed;
+            }
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(delete)) {
+                for (int i = 0; i < expired.size(); i++) {
+                    stmt.setBytes(1, toBytes(expired.get(i).getPlayerId()));
+                    stmt.setLong(2, expiries.get(i));
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                connection.commit();
+
+                // Another server sweeping the same table may have deleted some rows first
+                for (int i = 0; i < expired.size(); i++) {
+                    if (i >= counts.length || counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        removed.add(expired.get(i));
+                    }
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.error("Failed to remove expired ranks from " + name + ": " + e.getMessage());
+        }
+        return removed;
+    }
+
+    private void readChunk(Connection connection, List<UUID> chunk, Map<UUID, PlayerRankData> result) throws SQLException {
+        StringBuilder query = new StringBuilder("SELECT " + COLUMNS + " FROM " + TABLE + " WHERE uuid IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        query.append(")");
+
+        try (PreparedStatement stmt = connection.prepareStatement(query.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                stmt.setBytes(i + 1, toBytes(chunk.get(i)));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID playerId = fromBytes(rs.getBytes("uuid"));
+                    result.put(playerId, new PlayerRankData(playerId, rs.getString("username"), rs.getString("rank_name"),
+                            rs.getLong("time_given"),
+                            rs.getLong("time_expires")));
+                }
+            }
+        }
+    }
+
+    private PlayerRankData readLegacyRow(UUID playerId) throws SQLException {
+        String query = "SELECT username, rank_name, time_given, time_expires FROM " + LEGACY_TABLE + " WHERE uuid = ?";
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(query)) {
+                stmt.setString(1, playerId.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    return new PlayerRankData(playerId, rs.getString("username"), rs.getString("rank_name"),
+                            TimeUtils.parseStoredTimestamp(rs.getString("time_given"), false),
+                            TimeUtils.parseStoredTimestamp(rs.getString("time_expires"), true));
+                }
+            } catch (SQLException e) {
+                if (!legacyTableExists(connection)) {
+                    legacyPending = false; // Renamed by another server in the meantime
+                    return null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void setPlayerRank(PlayerRankData data) {
+        try {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(getUpsertQuery())) {
+                bindUpsert(stmt, data);
+                stmt.executeUpdate();
+            }
+            plugin.debug("Set rank for " + data.getPlayerName() + " to " + data.getRankName() + " in " + name);
+        } catch (SQLException e) {
+            plugin.error("Failed to set player rank in " + name + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removePlayerRank(UUID playerId) {
+        migrationLock.readLock().lock();
+        try {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE uuid = ?")) {
+                stmt.setBytes(1, toBytes(playerId));
+                stmt.executeUpdate();
+                if (legacyPending) {
+                    deleteLegacy(connection, playerId);
+                }
+            }
+            plugin.debug("Removed rank for player " + playerId + " from " + name);
+        } catch (SQLException e) {
+            plugin.error("Failed to remove player rank from " + name + ": " + e.getMessage());
+        } finally {
+            migrationLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean writeBatch(List<PendingWrite> batch) {
+        String delete = "DELETE FROM " + TABLE + " WHERE uuid = ?";
+
+        migrationLock.readLock().lock();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsertStmt = connection.prepareStatement(getUpsertQuery());
+                 PreparedStatement deleteStmt = connection.prepareStatement(delete)) {
+                int upserts = 0;
+                int deletes = 0;
+
+                for (PendingWrite write : batch) {
+                    if (write.isRemoval()) {
+                        deleteStmt.setBytes(1, toBytes(write.getPlayerId()));
+                        deleteStmt.addBatch();
+                        deletes++;
+                        if (legacyPending) {
+                            deleteLegacy(connection, write.getPlayerId());
+                        }
+                    } else {
+                        bindUpsert(upsertStmt, write.getData());
+                        upsertStmt.addBatch();
+                        upserts++;
+                    }
+                }
+
+                if (upserts > 0) {
+                    upsertStmt.executeBatch();
+                }
+                if (deletes > 0) {
+                    deleteStmt.executeBatch();
+                }
+                connection.commit();
+                plugin.debug("Wrote batch to " + name + " (" + upserts + " set, " + deletes + " removed)");
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.error("Failed to write rank batch to " + name + ": " + e.getMessage());
+            return false;
+        } finally {
+            migrationLock.readLock().unlock();
+        }
+    }
+
+    private void deleteLegacy(Connection connection, UUID playerId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM " + LEGACY_TABLE + " WHERE uuid = ?")) {
+            stmt.setString(1, playerId.toString());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            if (!legacyTableExists(connection)) {
+                legacyPending = false; // Renamed by another server in the meantime
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private void bindUpsert(PreparedStatement stmt, PlayerRankData data) throws SQLException {
+        stmt.setBytes(1, toBytes(data.getPlayerId()));
+        stmt.setString(2, data.getPlayerName());
+        stmt.setString(3, data.getRankName());
+        stmt.setLong(4, data.getTimeGiven());
+        long expires = data.getTimeExpires();
+        if (expires > 0) {
+            stmt.setLong(5, expires);
+        } else {
+            stmt.setNull(5, Types.BIGINT); // permanent
+        }
+    }
+
+    /**
+     * Copy a v1 table into v2 in the background, if one is still waiting
+     */
+    private void startMigrationIfNeeded() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (getSchemaVersion(connection) >= SCHEMA_VERSION) {
+                return;
+            }
+            if (!legacyTableExists(connection)) {
+                setSchemaVersion(connection);
+                return;
+            }
+        }
+
+        legacyPending = true;
+        migrationThread = new Thread(this::migrateLegacyTable, "RankCorex-Migration");
+        migrationThread.setDaemon(true);
+        migrationThread.start();
+        plugin.log("Migrating " + LEGACY_TABLE + " to schema v" + SCHEMA_VERSION + " in the background");
+    }
+
+    private void migrateLegacyTable() {
+        int batchSize = Math.max(1, plugin.getConfig().getInt("storage.migration-batch-size", 1000));
+        String select = "SELECT " + COLUMNS + " FROM " + LEGACY_TABLE + " WHERE uuid > ? ORDER BY uuid LIMIT " + batchSize;
+        String lastUuid = "";
+        int migrated = 0;
+        int expired = 0;
+        long start = System.currentTimeMillis();
+
+        try {
+            while (!stopping) {
+                int copied = 0;
+
+                migrationLock.writeLock().lock();
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement selectStmt = connection.prepareStatement(select);
+                         PreparedStatement insertStmt = connection.prepareStatement(getInsertIfAbsentQuery())) {
+                        selectStmt.setString(1, lastUuid);
+                        try (ResultSet rs = selectStmt.executeQuery()) {
+                            while (rs.next()) {
+                                lastUuid = rs.getString("uuid");
+                                UUID playerId;
+                                try {
+                                    playerId = UUID.fromString(lastUuid);
+                                } catch (IllegalArgumentException e) {
+                                    plugin.error("Skipping invalid UUID in " + LEGACY_TABLE + ": " + lastUuid);
+                                    continue;
+                                }
+
+                                PlayerRankData data = new PlayerRankData(playerId, rs.getString("username"),
+                                        rs.getString("rank_name"),
+                                        TimeUtils.parseStoredTimestamp(rs.getString("time_given"), false),
+                                        TimeUtils.parseStoredTimestamp(rs.getString("time_expires"), true));
+                                copied++;
+
+                                // The sweeper only scans v2, so lapsed v1 rows are dropped here instead of copied back in.
+                                // v1 stores expiry as text, so the check runs on the parsed value.
+                                if (data.hasExpired()) {
+                                    expired++;
+                                    continue;
+                                }
+                                bindUpsert(insertStmt, data);
+                                insertStmt.addBatch();
+                            }
+                        }
+
+                        if (copied > 0) {
+                            insertStmt.executeBatch();
+                        }
+                        connection.commit();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                } finally {
+                    migrationLock.writeLock().unlock();
+                }
+
+                if (copied == 0) {
+                    break;
+                }
+                migrated += copied;
+                plugin.debug("Migrated " + migrated + " players to schema v" + SCHEMA_VERSION);
+            }
+
+            if (stopping) {
+                plugin.debug("Schema migration paused, it resumes on next start");
+                return;
+            }
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE " + LEGACY_TABLE + " RENAME TO " + LEGACY_TABLE + "_v1");
+                setSchemaVersion(connection);
+            }
+            legacyPending = false;
+            plugin.log("Migrated " + (migrated - expired) + " players to schema v" + SCHEMA_VERSION + " in " +
+                    (System.currentTimeMillis() - start) + "ms, skipped " + expired + " expired ranks (old table kept as " + LEGACY_TABLE + "_v1)");
+        } catch (SQLException e) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (getSchemaVersion(connection) >= SCHEMA_VERSION) {
+                    legacyPending = false; // Another server finished it
+                    return;
+                }
+            } catch (SQLException ignored) {
+            }
+            if (!stopping) {
+                plugin.error("Schema migration failed, it will retry on next start: " + e.getMessage());
+            }
+        }
+    }
+
+    private int getSchemaVersion(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT meta_value FROM rankcorex_meta WHERE meta_key = 'schema_version'");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? Integer.parseInt(rs.getString(1)) : 0;
+        }
+    }
+
+    private void setSchemaVersion(Connection connection) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM rankcorex_meta WHERE meta_key = 'schema_version'");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO rankcorex_meta (meta_key, meta_value) VALUES ('schema_version', ?)")) {
+            delete.executeUpdate();
+            insert.setString(1, String.valueOf(SCHEMA_VERSION));
+            insert.executeUpdate();
+        }
+    }
+
+    private boolean legacyTableExists(Connection connection) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getTables(connection.getCatalog(), null, LEGACY_TABLE, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    protected static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    protected static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public int getPreferredThreads() {
+        // One thread per pooled connection
+        return poolMaxSize;
+    }
+
+    @Override
+    public void shutdown() {
+        stopping = true;
+        if (migrationThread != null) {
+            try {
+                migrationThread.join(5000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (dataSource != null && !dataSource.isClosed()) {
+            try {
+                dataSource.close();
+                plugin.debug(name + " connection pool closed");
+            } catch (Exception e) {
+                plugin.error("Failed to close " + name + " connection pool: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces rank writes per player and flushes them to storage in batches.
+ * Only the latest mutation for each player is kept, so bulk changes cost
+ * one batch instead of one statement (or one players.yml save) per change.
+ */
+public class WriteBehindQueue {
+
+    private final Rankcorex plugin;
+    private final Predicate<List<PendingWrite>> batchWriter;
+    private final Executor executor;
+    private final long flushIntervalMillis;
+    private final int maxBatchSize;
+
+    private final Map<UUID, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    public WriteBehindQueue(Rankcorex plugin, Predicate<List<PendingWrite>> batchWriter, Executor executor,
+                            long flushIntervalMillis, int maxBatchSize) {
+        this.plugin = plugin;
+        this.batchWriter = batchWriter;
+        this.executor = executor;
+        this.flushIntervalMillis = Math.max(50L, flushIntervalMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RankCorex-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::requestFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        plugin.debug("Write-behind queue started (interval: " + flushIntervalMillis + "ms, batch: " + maxBatchSize + ")");
+    }
+
+    /**
+     * Queue a mutation, replacing any pending one for the same player
+     */
+    public void enqueue(PendingWrite write) {
+        PendingWrite replaced = pending.put(write.getPlayerId(), write);
+        if (replaced != null) {
+            // The replaced change is stored when the newer one is
+            write.getWritten().whenComplete((ignored, error) -> {
+                if (error != null) {
+                    replaced.getWritten().completeExceptionally(error);
+                } else {
+                    replaced.getWritten().complete(null);
+                }
+            });
+        }
+
+        if (pending.size() >= maxBatchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Get the not-yet-flushed mutation for a player, if any
+     */
+    public PendingWrite getPending(UUID playerId) {
+        return pending.get(playerId);
+    }
+
+    /**
+     * Write a player's pending change soon instead of waiting for the next interval
+     * @return future completed once the change is in storage (already complete if nothing is pending)
+     */
+    public CompletableFuture<Void> flushNow(UUID playerId) {
+        PendingWrite write = pending.get(playerId);
+        if (write == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        requestFlush();
+        return write.getWritten();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Schedule a flush on the storage executor unless one is already queued
+     */
+    private void requestFlush() {
+        if (pending.isEmpty() || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        } catch (Exception e) {
+            flushQueued.set(false);
+            plugin.error("Failed to schedule write-behind flush: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write every pending mutation, in batches of at most maxBatchSize
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            while (!pending.isEmpty()) {
+                List<PendingWrite> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+                for (PendingWrite write : pending.values()) {
+                    batch.add(write);
+                    if (batch.size() >= maxBatchSize) {
+                        break;
+                    }
+                }
+
+                if (!batchWriter.test(batch)) {
+                    plugin.error("Write-behind flush failed, " + pending.size() + " rank changes will be retried");
+                    return;
+                }
+
+                // Only drop entries that were not replaced while the batch was being written
+                for (PendingWrite write : batch) {
+                    pending.remove(write.getPlayerId(), write);
+                    write.getWritten().complete(null);
+                }
+                plugin.debug("Flushed " + batch.size() + " coalesced rank writes");
+            }
+        }
+    }
+
+    /**
+     * Stop the timer and write everything still pending on the calling thread
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            plugin.error("Write-behind queue shut down with " + pending.size() + " unwritten rank changes");
+            IllegalStateException error = new IllegalStateException("Write-behind queue shut down before the change was written");
+            for (PendingWrite write : pending.values()) {
+                write.getWritten().completeExceptionally(error);
+            }
+        }
+    }
+}
\ No newline at end of file
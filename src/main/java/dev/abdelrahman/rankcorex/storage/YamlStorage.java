@@ -0,0 +1,225 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores player ranks in players.yml (single server use)
+ */
+public class YamlStorage implements PlayerStorage {
+
+    private final Rankcorex plugin;
+    private File playersFile;
+    private FileConfiguration playersConfig;
+
+    public YamlStorage(Rankcorex plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean initialize() {
+        try {
+            playersFile = new File(plugin.getDataFolder(), "players.yml");
+            if (!playersFile.exists()) {
+                playersFile.createNewFile();
+            }
+            playersConfig = YamlConfiguration.loadConfiguration(playersFile);
+            plugin.debug("YAML storage initialized successfully");
+            return true;
+        } catch (Exception e) {
+            plugin.error("Failed to initialize YAML storage: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public PlayerRankData getPlayerRank(UUID playerId) {
+        try {
+            ConfigurationSection playerSection = playersConfig.getConfigurationSection("players." + playerId.toString());
+            if (playerSection != null) {
+                PlayerRankData data = readEntry(playerId, playerSection);
+
+                // Check if expired
+                if (data.hasExpired()) {
+                    removePlayerRank(playerId);
+                    return null; // Will fall back to default rank
+                }
+
+                return data;
+            }
+        } catch (Exception e) {
+            plugin.error("Failed to get player rank from YAML: " + e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public Map<UUID, PlayerRankData> getPlayerRanks(Collection<UUID> playerIds) {
+        Map<UUID, PlayerRankData> result = new HashMap<>();
+        boolean removedExpired = false;
+
+        try {
+            for (UUID playerId : playerIds) {
+                ConfigurationSection playerSection = playersConfig.getConfigurationSection("players." + playerId.toString());
+                if (playerSection == null) continue;
+
+                PlayerRankData data = readEntry(playerId, playerSection);
+
+                if (data.hasExpired()) {
+                    playersConfig.set("players." + playerId.toString(), null);
+                    removedExpired = true;
+                } else {
+                    result.put(playerId, data);
+                }
+            }
+
+            // One save for every expired rank found in this pass
+            if (removedExpired) {
+                playersConfig.save(playersFile);
+            }
+        } catch (Exception e) {
+            plugin.error("Failed to get player ranks from YAML: " + e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public void setPlayerRank(PlayerRankData data) {
+        try {
+            writeEntry(data);
+
+            playersConfig.save(playersFile);
+            plugin.debug("Set rank for " + data.getPlayerName() + " to " + data.getRankName() + " in YAML");
+        } catch (Exception e) {
+            plugin.error("Failed to set player rank in YAML: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removePlayerRank(UUID playerId) {
+        try {
+            playersConfig.set("players." + playerId.toString(), null);
+            playersConfig.save(playersFile);
+            plugin.debug("Removed rank for player " + playerId + " from YAML");
+        } catch (Exception e) {
+            plugin.error("Failed to remove player rank from YAML: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean writeBatch(List<PendingWrite> batch) {
+        try {
+            for (PendingWrite write : batch) {
+                if (write.isRemoval()) {
+                    playersConfig.set("players." + write.getPlayerId().toString(), null);
+                } else {
+                    writeEntry(write.getData());
+                }
+            }
+
+            playersConfig.save(playersFile);
+            plugin.debug("Wrote batch of " + batch.size() + " rank changes to YAML");
+            return true;
+        } catch (Exception e) {
+            plugin.error("Failed to write rank batch to YAML: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<PlayerRankData> removeExpired(long now, int limit) {
+        List<PlayerRankData> removed = new ArrayList<>();
+        ConfigurationSection players = playersConfig.getConfigurationSection("players");
+        if (players == null) {
+            return removed;
+        }
+
+        try {
+            for (String key : players.getKeys(false)) {
+                if (removed.size() >= limit) break;
+
+                ConfigurationSection section = players.getConfigurationSection(key);
+                if (section == null) continue;
+
+                long expires = TimeUtils.parseStoredTimestamp(section.get("expires"), true);
+                if (expires == 0 || expires > now) continue;
+
+                try {
+                    removed.add(readEntry(UUID.fromString(key), section));
+                    players.set(key, null);
+                } catch (IllegalArgumentException e) {
+                    plugin.error("Skipping invalid player entry in players.yml: " + key);
+                }
+            }
+
+            if (!removed.isEmpty()) {
+                playersConfig.save(playersFile);
+            }
+        } catch (Exception e) {
+            plugin.error("Failed to remove expired ranks from YAML: " + e.getMessage());
+        }
+        return removed;
+    }
+
+    private void writeEntry(PlayerRankData data) {
+        String path = "players." + data.getPlayerId().toString();
+        playersConfig.set(path + ".username", data.getPlayerName());
+        playersConfig.set(path + ".rank", data.getRankName());
+        playersConfig.set(path + ".given", data.getTimeGiven());
+        playersConfig.set(path + ".expires", data.isPermanent() ? null : data.getTimeExpires());
+    }
+
+    /**
+     * Read one player entry, accepting epoch millis or the old yyyy-MM-dd-HH:mm:ss strings
+     */
+    private static PlayerRankData readEntry(UUID playerId, ConfigurationSection section) {
+        return new PlayerRankData(playerId, section.getString("username"), section.getString("rank"),
+                TimeUtils.parseStoredTimestamp(section.get("given"), false),
+                TimeUtils.parseStoredTimestamp(section.get("expires"), true));
+    }
+
+    /**
+     * Read every entry of an existing players.yml, used to seed other file backends
+     */
+    public static List<PendingWrite> readExisting(Rankcorex plugin) {
+        List<PendingWrite> entries = new ArrayList<>();
+        File playersFile = new File(plugin.getDataFolder(), "players.yml");
+        if (!playersFile.exists()) {
+            return entries;
+        }
+
+        ConfigurationSection players = YamlConfiguration.loadConfiguration(playersFile).getConfigurationSection("players");
+        if (players == null) {
+            return entries;
+        }
+
+        for (String key : players.getKeys(false)) {
+            ConfigurationSection section = players.getConfigurationSection(key);
+            if (section == null) continue;
+
+            try {
+                entries.add(PendingWrite.set(readEntry(UUID.fromString(key), section)));
+            } catch (IllegalArgumentException e) {
+                plugin.error("Skipping invalid player entry in players.yml: " + key);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void shutdown() {
+        // Every write is saved as it happens
+    }
+}
\ No newline at end of file
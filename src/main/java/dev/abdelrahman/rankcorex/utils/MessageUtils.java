@@ -74,6 +74,9 @@ public class MessageUtils {
     public static final String NO_RANKS_DEFINED = "&cNo ranks are defined in ranks.yml!";
     public static final String INVALID_TIME_FORMAT = "&cInvalid time format! Use: s, m, h, d, mo, y (example: 7d)";
     public static final String CONFIG_RELOADED = "&aConfiguration reloaded successfully!";
+    public static final String REAPPLY_PROGRESS = "&7Reapplying ranks... &f{done}&7/&f{total} &7players";
+    public static final String REAPPLY_DONE = "&aRanks reapplied to &f{count} &aonline players over &f{ticks} &aticks.";
+    public static final String CONFIG_RELOAD_FAILED = "&cCould not load ranks.yml, keeping the current ranks. Check the console for details.";
     public static final String STORAGE_ERROR = "&cA storage error occurred. Please check the console for details.";
     public static final String SAME_RANK = "&cPlayer &f{player} &calready has rank &f{rank}&c.";
     public static final String COMMAND_COOLDOWN = "&cPlease wait &f{time} &cbefore using this command again.";
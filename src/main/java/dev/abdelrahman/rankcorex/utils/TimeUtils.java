@@ -1,8 +1,9 @@
 package dev.abdelrahman.rankcorex.utils;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -11,6 +12,13 @@ public class TimeUtils {
     private static final Pattern TIME_PATTERN = Pattern.compile("(\\d+)(s|m|h|d|mo|y)");
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH:mm:ss");
 
+    // Per-thread buffer for duration text, placeholders may be requested off the main thread
+    private static final ThreadLocal<StringBuilder> DURATION_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(24));
+
+    // Coarse clock for display paths, refreshed once per tick while the plugin runs
+    private static volatile long coarseMillis;
+    private static volatile boolean clockRunning;
+
     /**
      * Parse time string like "7d", "30m", "1y" into seconds
      * @param timeStr the time string to parse
@@ -41,97 +49,170 @@ public class TimeUtils {
     }
 
     /**
-     * Get current timestamp as string
+     * Get current timestamp (epoch milliseconds)
      */
-    public static String getCurrentTimestamp() {
-        return LocalDateTime.now().format(FORMATTER);
+    public static long getCurrentTimestamp() {
+        return System.currentTimeMillis();
     }
 
     /**
      * Get future timestamp by adding seconds
+     * @return epoch milliseconds, or 0 for permanent
      */
-    public static String getFutureTimestamp(long seconds) {
+    public static long getFutureTimestamp(long seconds) {
         if (seconds <= 0) {
-            return null; // permanent
+            return 0; // permanent
         }
-        return LocalDateTime.now().plusSeconds(seconds).format(FORMATTER);
+        return System.currentTimeMillis() + seconds * 1000L;
     }
 
     /**
-     * Check if timestamp has expired
+     * Convert a legacy yyyy-MM-dd-HH:mm:ss timestamp to epoch milliseconds (server time zone)
+     * @return epoch millis, or 0 for permanent/invalid
      */
-    public static boolean hasExpired(String timestamp) {
+    public static long toEpochMillis(String timestamp) {
         if (timestamp == null || timestamp.isEmpty()) {
-            return false; // permanent ranks don't expire
+            return 0;
         }
 
         try {
-            LocalDateTime expiry = LocalDateTime.parse(timestamp, FORMATTER);
-            return LocalDateTime.now().isAfter(expiry);
+            return LocalDateTime.parse(timestamp, FORMATTER).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         } catch (Exception e) {
-            return true; // if we can't parse, assume expired
+            return 0;
         }
     }
 
     /**
-     * Get remaining time until expiry in a readable format
+     * Read a stored timestamp written either as epoch milliseconds or in the legacy string format
+     * @param expiry true for expiry values, where an unreadable one counts as already expired
+     * @return epoch millis, or 0 for permanent/unknown
      */
-    public static String getTimeRemaining(String timestamp) {
-        if (timestamp == null || timestamp.isEmpty()) {
-            return "Permanent";
+    public static long parseStoredTimestamp(Object value, boolean expiry) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Number) {
+            return Math.max(0L, ((Number) value).longValue());
+        }
+
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return 0;
         }
 
         try {
-            LocalDateTime expiry = LocalDateTime.parse(timestamp, FORMATTER);
-            LocalDateTime now = LocalDateTime.now();
+            return Math.max(0L, Long.parseLong(text));
+        } catch (NumberFormatException ignored) {
+            // Written before timestamps were stored as epoch milliseconds
+        }
 
-            if (now.isAfter(expiry)) {
-                return "Expired";
-            }
+        long parsed = toEpochMillis(text);
+        if (parsed == 0 && expiry) {
+            return 1L; // if we can't parse, assume expired
+        }
+        return parsed;
+    }
 
-            long days = ChronoUnit.DAYS.between(now, expiry);
-            long hours = ChronoUnit.HOURS.between(now, expiry) % 24;
-            long minutes = ChronoUnit.MINUTES.between(now, expiry) % 60;
+    /**
+     * Format epoch milliseconds for display (server time zone)
+     * @return formatted timestamp, or null for 0 (permanent)
+     */
+    public static String formatTimestamp(long epochMillis) {
+        if (epochMillis <= 0) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(FORMATTER);
+    }
 
-            if (days > 0) {
-                return days + "d " + hours + "h " + minutes + "m";
-            } else if (hours > 0) {
-                return hours + "h " + minutes + "m";
-            } else {
-                return minutes + "m";
-            }
+    /**
+     * Check if timestamp has expired
+     */
+    public static boolean hasExpired(long expiresAt) {
+        return expiresAt > 0 && System.currentTimeMillis() >= expiresAt; // 0 = permanent
+    }
 
-        } catch (Exception e) {
-            return "Invalid";
+    /**
+     * Refresh the coarse clock (called every tick)
+     */
+    public static void updateClock() {
+        coarseMillis = System.currentTimeMillis();
+        clockRunning = true;
+    }
+
+    public static void stopClock() {
+        clockRunning = false;
+    }
+
+    /**
+     * Current time for display purposes, up to one tick old
+     * Expiry decisions use System.currentTimeMillis() directly.
+     */
+    public static long currentTimeMillis() {
+        return clockRunning ? coarseMillis : System.currentTimeMillis();
+    }
+
+    /**
+     * Get remaining time until expiry in a readable format
+     */
+    public static String getTimeRemaining(long expiresAt) {
+        if (expiresAt <= 0) {
+            return "Permanent";
         }
+        return formatRemaining(expiresAt - currentTimeMillis());
     }
 
     /**
      * Get time since given in readable format
      */
-    public static String getTimeSince(String timestamp) {
-        if (timestamp == null || timestamp.isEmpty()) {
+    public static String getTimeSince(long givenAt) {
+        if (givenAt <= 0) {
             return "Unknown";
         }
+        return formatElapsed(currentTimeMillis() - givenAt);
+    }
 
-        try {
-            LocalDateTime given = LocalDateTime.parse(timestamp, FORMATTER);
-            LocalDateTime now = LocalDateTime.now();
-
-            long days = ChronoUnit.DAYS.between(given, now);
-            long hours = ChronoUnit.HOURS.between(given, now) % 24;
-            long minutes = ChronoUnit.MINUTES.between(given, now) % 60;
+    /**
+     * Format a remaining duration as "1d 2h 3m", "2h 3m" or "3m"
+     */
+    public static String formatRemaining(long remainingMillis) {
+        if (remainingMillis < 0) {
+            return "Expired";
+        }
 
-            if (days > 0) {
-                return days + "d " + hours + "h ago";
-            } else if (hours > 0) {
-                return hours + "h " + minutes + "m ago";
-            } else {
-                return minutes + "m ago";
-            }
+        long days = remainingMillis / 86400000L;
+        long hours = remainingMillis / 3600000L % 24;
+        long minutes = remainingMillis / 60000L % 60;
+
+        StringBuilder out = DURATION_BUFFER.get();
+        out.setLength(0);
+        if (days > 0) {
+            out.append(days).append("d ").append(hours).append("h ").append(minutes).append('m');
+        } else if (hours > 0) {
+            out.append(hours).append("h ").append(minutes).append('m');
+        } else {
+            out.append(minutes).append('m');
+        }
+        return out.toString();
+    }
 
-        } catch (Exception e) {
-            return "Unknown";
+    /**
+     * Format an elapsed duration as "1d 2h ago", "2h 3m ago" or "3m ago"
+     */
+    public static String formatElapsed(long elapsedMillis) {
+        long elapsed = Math.max(0L, elapsedMillis);
+        long days = elapsed / 86400000L;
+        long hours = elapsed / 3600000L % 24;
+        long minutes = elapsed / 60000L % 60;
+
+        StringBuilder out = DURATION_BUFFER.get();
+        out.setLength(0);
+        if (days > 0) {
+            out.append(days).append("d ").append(hours).append("h ago");
+        } else if (hours > 0) {
+            out.append(hours).append("h ").append(minutes).append("m ago");
+        } else {
+            out.append(minutes).append("m ago");
         }
+        return out.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package dev.abdelrahman.rankcorex;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.logging.Logger;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mocked plugin and server for unit tests
+ */
+public final class TestSupport {
+
+    private static Server server;
+
+    private TestSupport() {
+    }
+
+    /**
+     * A plugin whose logging is a no-op, reading the given config and data folder
+     */
+    public static Rankcorex mockPlugin(File dataFolder, YamlConfiguration config) {
+        Rankcorex plugin = mock(Rankcorex.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.isEnabled()).thenReturn(true);
+        return plugin;
+    }
+
+    /**
+     * The mocked server behind Bukkit's static methods, installed once per JVM since Bukkit only accepts one
+     */
+    public static synchronized Server server() {
+        if (server == null) {
+            Server mock = mock(Server.class);
+            when(mock.getLogger()).thenReturn(Logger.getLogger("RankCorexTest"));
+            when(mock.getBukkitVersion()).thenReturn("1.8.8-R0.1-SNAPSHOT");
+            when(mock.isPrimaryThread()).thenReturn(true);
+            doReturn(Collections.emptyList()).when(mock).getOnlinePlayers();
+            Bukkit.setServer(mock);
+            server = mock;
+        }
+        return server;
+    }
+}
\ No newline at end of file
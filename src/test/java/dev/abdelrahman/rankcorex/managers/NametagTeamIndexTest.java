@@ -0,0 +1,176 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Team keying by (weight, prefix, suffix) and membership tracking, on a map-backed scoreboard
+ */
+class NametagTeamIndexTest {
+
+    @TempDir
+    File dataFolder;
+
+    private final Map<String, Team> teams = new LinkedHashMap<>();
+    private Scoreboard scoreboard;
+    private NametagTeamIndex index;
+
+    @BeforeEach
+    void setUp() {
+        TestSupport.server();
+        Rankcorex plugin = TestSupport.mockPlugin(dataFolder, new YamlConfiguration());
+
+        scoreboard = mock(Scoreboard.class);
+        when(scoreboard.getTeam(anyString())).thenAnswer(invocation -> teams.get(invocation.<String>getArgument(0)));
+        when(scoreboard.registerNewTeam(anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            if (teams.containsKey(name)) {
+                throw new IllegalArgumentException("Team " + name + " already exists");
+            }
+            Team team = team(name);
+            teams.put(name, team);
+            return team;
+        });
+        when(scoreboard.getTeams()).thenAnswer(invocation -> new HashSet<>(teams.values()));
+
+        index = new NametagTeamIndex(plugin);
+    }
+
+    /**
+     * A team mock keeping its prefix, suffix and entries like Bukkit does
+     */
+    private Team team(String name) {
+        Team team = mock(Team.class);
+        Set<String> entries = new HashSet<>();
+        String[] text = {"", ""};
+
+        when(team.getName()).thenReturn(name);
+        when(team.getScoreboard()).thenReturn(scoreboard);
+        when(team.getPrefix()).thenAnswer(invocation -> text[0]);
+        when(team.getSuffix()).thenAnswer(invocation -> text[1]);
+        doAnswer(invocation -> text[0] = invocation.getArgument(0)).when(team).setPrefix(anyString());
+        doAnswer(invocation -> text[1] = invocation.getArgument(0)).when(team).setSuffix(anyString());
+        when(team.getEntries()).thenReturn(entries);
+        when(team.getSize()).thenAnswer(invocation -> entries.size());
+        when(team.hasEntry(anyString())).thenAnswer(invocation -> entries.contains(invocation.<String>getArgument(0)));
+        when(team.removeEntry(anyString())).thenAnswer(invocation -> entries.remove(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> {
+            // An entry is in at most one team per scoreboard
+            String entry = invocation.getArgument(0);
+            for (Team other : teams.values()) {
+                other.getEntries().remove(entry);
+            }
+            entries.add(entry);
+            return null;
+        }).when(team).addEntry(anyString());
+        doAnswer(invocation -> {
+            if (teams.remove(name) == null) {
+                throw new IllegalStateException("Unregistered scoreboard component");
+            }
+            return null;
+        }).when(team).unregister();
+        return team;
+    }
+
+    @Test
+    void sameRenderingSharesOneTeam() {
+        Team first = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+        Team second = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+
+        assertSame(first, second);
+        assertEquals(1, teams.size());
+        assertEquals("&a[VIP] ", first.getPrefix());
+    }
+
+    @Test
+    void differentPrefixSuffixOrWeightGetsItsOwnTeam() {
+        Team base = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+
+        assertNotSame(base, index.getTeam(scoreboard, 10, "&6[VIP] ", ""));
+        assertNotSame(base, index.getTeam(scoreboard, 10, "&a[VIP] ", " &7*"));
+        assertNotSame(base, index.getTeam(scoreboard, 20, "&a[VIP] ", ""));
+        assertEquals(4, teams.size());
+    }
+
+    @Test
+    void namesSortByClampedWeightAndFitTheLimit() {
+        Team low = index.getTeam(scoreboard, 10, "a", "");
+        Team negative = index.getTeam(scoreboard, -5, "b", "");
+        Team huge = index.getTeam(scoreboard, 123456, "c", "");
+
+        assertTrue(low.getName().startsWith("rc_0010_"), low.getName());
+        assertTrue(negative.getName().startsWith("rc_0000_"), negative.getName());
+        assertTrue(huge.getName().startsWith("rc_9999_"), huge.getName());
+        for (String name : teams.keySet()) {
+            assertTrue(name.length() <= 16, name);
+        }
+    }
+
+    @Test
+    void leftoverTeamGetsTheCurrentRendering() {
+        String name = index.getTeam(scoreboard, 10, "&a[VIP] ", "").getName();
+        teams.get(name).setPrefix("&c[Old] ");
+
+        Team team = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+
+        assertEquals(name, team.getName());
+        assertEquals("&a[VIP] ", team.getPrefix());
+    }
+
+    @Test
+    void movingOutOfATeamUnregistersItWhenEmpty() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        Team vip = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+        Team mvp = index.getTeam(scoreboard, 20, "&b[MVP] ", "");
+
+        index.move(alice, "Alice", vip);
+        index.move(bob, "Bob", vip);
+        assertEquals(vip.getName(), index.getTeamName(alice));
+        assertEquals(2, index.size());
+
+        index.move(alice, "Alice", mvp);
+        assertTrue(teams.containsKey(vip.getName()), "Bob is still in the VIP team");
+        assertTrue(mvp.hasEntry("Alice"));
+        assertFalse(vip.hasEntry("Alice"));
+
+        index.remove(bob);
+        assertFalse(teams.containsKey(vip.getName()));
+        assertNull(index.getTeamName(bob));
+        assertEquals(1, index.size());
+
+        // Registered again under the same name when needed
+        Team again = index.getTeam(scoreboard, 10, "&a[VIP] ", "");
+        assertEquals(vip.getName(), again.getName());
+    }
+
+    @Test
+    void removesOnlyEmptyRankCoreXTeams() {
+        scoreboard.registerNewTeam("rc_0010_old");
+        scoreboard.registerNewTeam("rc_0020_used").addEntry("Alice");
+        scoreboard.registerNewTeam("other_team");
+
+        assertEquals(1, index.removeEmptyTeams(scoreboard));
+        assertEquals(new HashSet<>(Arrays.asList("rc_0020_used", "other_team")), teams.keySet());
+    }
+}
\ No newline at end of file
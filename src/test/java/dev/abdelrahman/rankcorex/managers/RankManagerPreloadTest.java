@@ -0,0 +1,146 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pre-login rank preloading: shared batches and changes made while a batch is in flight
+ */
+class RankManagerPreloadTest {
+
+    @TempDir
+    File dataFolder;
+
+    private final UUID playerId = UUID.randomUUID();
+    private StorageManager storage;
+    private RankManager manager;
+
+    private void start(long batchWindow) throws IOException {
+        when(TestSupport.server().getScheduler()).thenReturn(mock(BukkitScheduler.class, RETURNS_MOCKS));
+
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("storage.preload-batch-window", batchWindow);
+        config.set("storage.join-batch-window", 0);
+        Rankcorex plugin = TestSupport.mockPlugin(dataFolder, config);
+        storage = mock(StorageManager.class);
+        when(plugin.getStorageManager()).thenReturn(storage);
+        when(storage.setPlayerRank(any(UUID.class), anyString(), anyString(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        String yaml = "ranks:\n" +
+                "  member:\n" +
+                "    default: true\n" +
+                "  vip:\n" +
+                "    weight: 10\n";
+        Files.write(new File(dataFolder, "ranks.yml").toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+        manager = new RankManager(plugin);
+        manager.loadRanks();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
+    private Thread preloadInBackground(UUID id) {
+        Thread thread = new Thread(() -> manager.preloadPlayerRank(id));
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Join an offline player mock: a used preload touches nothing else, a missing one queries storage again
+     */
+    private void join() {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(playerId);
+        manager.handlePlayerJoin(player);
+    }
+
+    private Map<UUID, PlayerRankData> stored(String rankName) {
+        Map<UUID, PlayerRankData> result = new HashMap<>();
+        result.put(playerId, new PlayerRankData(playerId, "Alice", rankName, 0L, 0L));
+        return result;
+    }
+
+    @Test
+    void joinUsesThePreloadedRank() throws Exception {
+        start(0);
+        when(storage.getPlayerRanks(anyCollection())).thenReturn(CompletableFuture.completedFuture(stored("vip")));
+
+        manager.preloadPlayerRank(playerId);
+        join();
+
+        verify(storage, times(1)).getPlayerRanks(anyCollection());
+    }
+
+    @Test
+    void changeDuringAnInFlightBatchDropsThePreload() throws Exception {
+        start(0);
+        CompletableFuture<Map<UUID, PlayerRankData>> query = new CompletableFuture<>();
+        when(storage.getPlayerRanks(anyCollection())).thenReturn(query, CompletableFuture.completedFuture(stored("vip")));
+
+        Thread login = preloadInBackground(playerId);
+        verify(storage, timeout(1000)).getPlayerRanks(anyCollection());
+
+        assertTrue(manager.setPlayerRank(playerId, "Alice", "vip", null));
+        // The bulk query read the row before the change
+        query.complete(stored("member"));
+        login.join(1000);
+        assertFalse(login.isAlive());
+
+        join();
+        verify(storage, times(2)).getPlayerRanks(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loginsWithinTheWindowShareOneQuery() throws Exception {
+        start(200);
+        UUID other = UUID.randomUUID();
+        when(storage.getPlayerRanks(anyCollection())).thenReturn(CompletableFuture.completedFuture(stored("vip")));
+
+        Thread first = preloadInBackground(playerId);
+        Thread second = preloadInBackground(other);
+        first.join(2000);
+        second.join(2000);
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(storage, times(1)).getPlayerRanks(ids.capture());
+        assertEquals(new HashSet<>(Arrays.asList(playerId, other)), new HashSet<>(ids.getValue()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package dev.abdelrahman.rankcorex.managers;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.RankRegistry;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Async reloads publishing their registry snapshot, with the scheduler driven by hand
+ */
+class RankManagerReloadTest {
+
+    @TempDir
+    File dataFolder;
+
+    private final List<Runnable> asyncTasks = new ArrayList<>();
+    private final List<Runnable> mainTasks = new ArrayList<>();
+    private final List<Boolean> results = new ArrayList<>();
+    private Rankcorex plugin;
+    private RankManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        BukkitScheduler scheduler = mock(BukkitScheduler.class, RETURNS_MOCKS);
+        when(scheduler.runTaskAsynchronously(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation -> {
+            asyncTasks.add(invocation.getArgument(1));
+            return mock(BukkitTask.class);
+        });
+        when(scheduler.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation -> {
+            mainTasks.add(invocation.getArgument(1));
+            return mock(BukkitTask.class);
+        });
+        Server server = TestSupport.server();
+        when(server.getScheduler()).thenReturn(scheduler);
+
+        plugin = TestSupport.mockPlugin(dataFolder, new YamlConfiguration());
+        writeRanks("&a[VIP]");
+        manager = new RankManager(plugin);
+        manager.loadRanks();
+    }
+
+    private void writeRanks(String vipPrefix) throws IOException {
+        String yaml = "ranks:\n" +
+                "  member:\n" +
+                "    prefix: '&7'\n" +
+                "    weight: 1\n" +
+                "    default: true\n" +
+                "  vip:\n" +
+                "    prefix: '" + vipPrefix + "'\n" +
+                "    weight: 10\n" +
+                "    permissions:\n" +
+                "      - essentials.fly\n";
+        Files.write(new File(dataFolder, "ranks.yml").toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String vipPrefix() {
+        return manager.getRegistry().get("vip").getPrefix();
+    }
+
+    @Test
+    void reloadPublishesANewSnapshotOnTheMainThread() throws IOException {
+        RankRegistry before = manager.getRegistry();
+        writeRanks("&6[VIP]");
+
+        manager.reloadRanksAsync(null, results::add);
+        asyncTasks.remove(0).run();
+        assertSame(before, manager.getRegistry(), "parsing must not publish");
+
+        mainTasks.remove(0).run();
+        assertEquals("&6[VIP]", vipPrefix());
+        assertEquals("&a[VIP]", before.get("vip").getPrefix(), "old snapshot stays intact for its readers");
+        assertEquals(Arrays.asList(true), results);
+    }
+
+    @Test
+    void supersededReloadIsDiscarded() throws IOException {
+        writeRanks("&b[VIP]");
+        manager.reloadRanksAsync(null, results::add);
+        asyncTasks.remove(0).run();
+
+        writeRanks("&6[VIP]");
+        manager.reloadRanksAsync(null, results::add);
+        asyncTasks.remove(0).run();
+
+        // The newer reload's main-thread task happens to run first
+        mainTasks.remove(1).run();
+        RankRegistry newest = manager.getRegistry();
+        mainTasks.remove(0).run();
+
+        assertSame(newest, manager.getRegistry());
+        assertEquals("&6[VIP]", vipPrefix());
+        assertEquals(Arrays.asList(true, true), results);
+    }
+
+    @Test
+    void failedReloadKeepsThePreviousSnapshot() throws IOException {
+        RankRegistry before = manager.getRegistry();
+        Files.write(new File(dataFolder, "ranks.yml").toPath(), "other: 1\n".getBytes(StandardCharsets.UTF_8));
+
+        manager.reloadRanksAsync(null, results::add);
+        asyncTasks.remove(0).run();
+        mainTasks.remove(0).run();
+
+        assertSame(before, manager.getRegistry());
+        assertEquals(Arrays.asList(false), results);
+    }
+
+    @Test
+    void configIsParsedAsyncAndAppliedOnTheMainThread() {
+        YamlConfiguration config = new YamlConfiguration();
+        when(plugin.loadConfigFile()).thenReturn(config);
+
+        manager.reloadRanksAsync(null, true, results::add);
+        verify(plugin, never()).loadConfigFile();
+
+        asyncTasks.remove(0).run();
+        verify(plugin).loadConfigFile();
+        verify(plugin, never()).applyConfig(config);
+
+        mainTasks.remove(0).run();
+        verify(plugin).applyConfig(config);
+        assertEquals(Arrays.asList(true), results);
+    }
+}
\ No newline at end of file
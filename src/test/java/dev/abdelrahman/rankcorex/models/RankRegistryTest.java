@@ -0,0 +1,124 @@
+package dev.abdelrahman.rankcorex.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankRegistryTest {
+
+    private static RankData rank(String name, String prefix, int weight, boolean isDefault, String... permissions) {
+        return new RankData(name, prefix, "", weight, isDefault, Arrays.asList(permissions));
+    }
+
+    private static RankRegistry registry(RankData... ranks) {
+        Map<String, RankData> byName = new LinkedHashMap<>();
+        RankData defaultRank = null;
+        for (RankData rank : ranks) {
+            byName.put(rank.getName().toLowerCase(), rank);
+            if (rank.isDefault()) {
+                defaultRank = rank;
+            }
+        }
+        return new RankRegistry(byName, defaultRank);
+    }
+
+    @Test
+    void snapshotDoesNotChangeWithItsSourceMap() {
+        Map<String, RankData> ranks = new LinkedHashMap<>();
+        ranks.put("member", rank("member", "&7", 1, true));
+        RankRegistry snapshot = new RankRegistry(ranks, ranks.get("member"));
+
+        ranks.put("vip", rank("vip", "&a", 10, false));
+        ranks.remove("member");
+
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.contains("member"));
+        assertFalse(snapshot.contains("vip"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRanks().clear());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getSorted().clear());
+    }
+
+    @Test
+    void publishingANewSnapshotLeavesTheOldOneIntact() {
+        RankRegistry before = registry(rank("member", "&7", 1, true), rank("vip", "&a", 10, false));
+        RankRegistry after = registry(rank("member", "&7", 1, true), rank("vip", "&6", 10, false));
+
+        assertEquals("&a", before.get("vip").getPrefix());
+        assertEquals("&6", after.get("vip").getPrefix());
+        assertNotEquals(before.getHash(), after.getHash());
+    }
+
+    @Test
+    void lookupsIgnoreCaseAndSortingIsByWeight() {
+        RankRegistry snapshot = registry(rank("member", "", 1, true), rank("Admin", "", 100, false), rank("vip", "", 10, false));
+
+        assertSame(snapshot.get("admin"), snapshot.get("ADMIN"));
+        assertEquals("member", snapshot.getDefaultRank().getName());
+        assertNull(snapshot.get(null));
+        assertEquals(Arrays.asList("Admin", "vip", "member"),
+                Arrays.asList(snapshot.getSorted().get(0).getName(), snapshot.getSorted().get(1).getName(),
+                        snapshot.getSorted().get(2).getName()));
+    }
+
+    @Test
+    void compilesPermissionNodesOncePerSnapshot() {
+        RankRegistry snapshot = registry(rank("vip", "", 10, true, "Essentials.Fly", "-essentials.god", " kits.vip ", "bad..node", "-"));
+
+        Map<String, Boolean> compiled = snapshot.getCompiledPermissions("VIP");
+        assertEquals(3, compiled.size());
+        assertEquals(Boolean.TRUE, compiled.get("essentials.fly"));
+        assertEquals(Boolean.FALSE, compiled.get("essentials.god"));
+        assertEquals(Boolean.TRUE, compiled.get("kits.vip"));
+        assertSame(compiled, snapshot.getCompiledPermissions("vip"));
+        assertTrue(snapshot.getCompiledPermissions("unknown").isEmpty());
+    }
+
+    @Test
+    void hashDependsOnlyOnDefinitions() {
+        RankRegistry first = registry(rank("member", "&7", 1, true, "a.b"), rank("vip", "&a", 10, false, "c.d"));
+        RankRegistry same = registry(rank("vip", "&a", 10, false, "c.d"), rank("member", "&7", 1, true, "a.b"));
+        RankRegistry otherDefault = registry(rank("member", "&7", 1, false, "a.b"), rank("vip", "&a", 10, true, "c.d"));
+
+        assertEquals(first.getHash(), same.getHash());
+        assertNotEquals(first.getHash(), otherDefault.getHash());
+    }
+
+    @Test
+    void diffReportsWhichAspectsChanged() {
+        RankRegistry before = registry(
+                rank("member", "&7", 1, true, "a.b"),
+                rank("vip", "&a", 10, false, "c.d"),
+                rank("mvp", "&b", 20, false, "e.f"),
+                rank("old", "", 5, false));
+        RankRegistry after = registry(
+                rank("member", "&7", 1, true, "a.b"),
+                rank("vip", "&6", 10, false, "c.d"),
+                rank("mvp", "&b", 20, false, "e.f", "g.h"),
+                rank("new", "", 5, false));
+
+        Map<String, Set<RankRegistry.Aspect>> changes = after.diff(before);
+
+        assertFalse(changes.containsKey("member"));
+        assertEquals(EnumSet.of(RankRegistry.Aspect.DISPLAY), changes.get("vip"));
+        assertEquals(EnumSet.of(RankRegistry.Aspect.PERMISSIONS), changes.get("mvp"));
+        assertEquals(EnumSet.allOf(RankRegistry.Aspect.class), changes.get("old"));
+        assertEquals(EnumSet.allOf(RankRegistry.Aspect.class), changes.get("new"));
+        assertTrue(after.diff(after).isEmpty());
+    }
+
+    @Test
+    void emptyRegistryHasNoRanks() {
+        List<RankData> none = Collections.emptyList();
+        assertTrue(RankRegistry.EMPTY.isEmpty());
+        assertEquals(none, RankRegistry.EMPTY.getSorted());
+        assertNull(RankRegistry.EMPTY.getDefaultRank());
+    }
+}
\ No newline at end of file
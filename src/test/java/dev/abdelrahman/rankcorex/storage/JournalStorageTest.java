@@ -0,0 +1,160 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalStorageTest {
+
+    @TempDir
+    File dataFolder;
+
+    private Rankcorex plugin;
+    private JournalStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("storage.journal.fsync-interval", 0);
+        config.set("storage.journal.compact-threshold", 1000);
+        plugin = TestSupport.mockPlugin(dataFolder, config);
+        storage = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.shutdown();
+    }
+
+    private JournalStorage open() {
+        JournalStorage journal = new JournalStorage(plugin);
+        assertTrue(journal.initialize());
+        return journal;
+    }
+
+    private JournalStorage reopen() {
+        storage.shutdown();
+        storage = open();
+        return storage;
+    }
+
+    private static PlayerRankData rank(UUID playerId, String rank) {
+        return new PlayerRankData(playerId, "player", rank, 1577836800000L, 0L);
+    }
+
+    private File journalFile() {
+        return new File(dataFolder, "players.journal");
+    }
+
+    @Test
+    void replaysTheJournalOnStartup() {
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        storage.setPlayerRank(rank(kept, "vip"));
+        storage.setPlayerRank(rank(kept, "mvp"));
+        storage.setPlayerRank(rank(removed, "vip"));
+        storage.removePlayerRank(removed);
+
+        JournalStorage reopened = reopen();
+
+        PlayerRankData data = reopened.getPlayerRank(kept);
+        assertNotNull(data);
+        assertEquals("mvp", data.getRankName());
+        assertEquals(1577836800000L, data.getTimeGiven());
+        assertNull(reopened.getPlayerRank(removed));
+    }
+
+    @Test
+    void dropsATornTailAndTruncatesIt() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        storage.setPlayerRank(rank(playerId, "vip"));
+        storage.shutdown();
+
+        long validLength = journalFile().length();
+        try (FileOutputStream out = new FileOutputStream(journalFile(), true)) {
+            // Length prefix of a record whose payload never made it to disk
+            out.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+
+        storage = open();
+
+        assertEquals("vip", storage.getPlayerRank(playerId).getRankName());
+        assertEquals(validLength, journalFile().length());
+    }
+
+    @Test
+    void stopsReplayAtARecordWithABadChecksum() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        storage.setPlayerRank(rank(playerId, "vip"));
+        long firstRecordEnd = journalFile().length();
+        storage.setPlayerRank(rank(playerId, "mvp"));
+        storage.shutdown();
+
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile(), "rw")) {
+            long last = raf.length() - 1;
+            raf.seek(last);
+            int value = raf.read();
+            raf.seek(last);
+            raf.write(value ^ 0xFF);
+        }
+
+        storage = open();
+
+        assertEquals("vip", storage.getPlayerRank(playerId).getRankName());
+        assertEquals(firstRecordEnd, journalFile().length());
+    }
+
+    @Test
+    void compactsIntoASnapshotOnceTheThresholdIsReached() {
+        List<PendingWrite> batch = new ArrayList<>();
+        List<UUID> playerIds = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID playerId = UUID.randomUUID();
+            playerIds.add(playerId);
+            batch.add(PendingWrite.set(rank(playerId, i % 2 == 0 ? "vip" : "mvp")));
+        }
+        assertTrue(storage.writeBatch(batch));
+
+        // Shutdown waits for the background compaction
+        JournalStorage reopened = reopen();
+
+        assertTrue(new File(dataFolder, "players.snapshot").exists());
+        assertFalse(new File(dataFolder, "players.journal.old").exists());
+        assertEquals(0L, journalFile().length());
+        for (int i = 0; i < playerIds.size(); i++) {
+            assertEquals(i % 2 == 0 ? "vip" : "mvp", reopened.getPlayerRank(playerIds.get(i)).getRankName());
+        }
+    }
+
+    @Test
+    void changesAfterCompactionAreReplayedOnTopOfTheSnapshot() {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(PendingWrite.set(rank(UUID.randomUUID(), "vip")));
+        }
+        UUID playerId = batch.get(0).getPlayerId();
+        assertTrue(storage.writeBatch(batch));
+        reopen();
+
+        storage.setPlayerRank(rank(playerId, "admin"));
+        JournalStorage reopened = reopen();
+
+        assertEquals("admin", reopened.getPlayerRank(playerId).getRankName());
+        assertEquals("vip", reopened.getPlayerRank(batch.get(1).getPlayerId()).getRankName());
+    }
+}
\ No newline at end of file
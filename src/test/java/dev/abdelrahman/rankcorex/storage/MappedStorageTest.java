@@ -0,0 +1,191 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStorageTest {
+
+    // players.dat layout, see MappedStorage
+    private static final int HEADER_SIZE = 16384;
+    private static final int RECORD_SIZE = 64;
+    private static final int MIN_CAPACITY = 1024;
+    private static final String[] RANKS = {"default", "vip", "mvp", "admin"};
+
+    @TempDir
+    File dataFolder;
+
+    private Rankcorex plugin;
+    private MappedStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("storage.mapped.initial-capacity", 100);
+        plugin = TestSupport.mockPlugin(dataFolder, config);
+        storage = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.shutdown();
+    }
+
+    private MappedStorage open() {
+        MappedStorage mapped = new MappedStorage(plugin);
+        assertTrue(mapped.initialize());
+        return mapped;
+    }
+
+    private MappedStorage reopen() {
+        storage.shutdown();
+        storage = open();
+        return storage;
+    }
+
+    private File dataFile() {
+        return new File(dataFolder, "players.dat");
+    }
+
+    private List<UUID> fill(int players) {
+        List<UUID> playerIds = new ArrayList<>();
+        List<PendingWrite> batch = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            UUID playerId = UUID.randomUUID();
+            playerIds.add(playerId);
+            batch.add(PendingWrite.set(new PlayerRankData(playerId, "player" + i, RANKS[i % RANKS.length],
+                    1577836800000L + i, 0L)));
+        }
+        assertTrue(storage.writeBatch(batch));
+        return playerIds;
+    }
+
+    private void assertAllPresent(PlayerStorage source, List<UUID> playerIds) {
+        for (int i = 0; i < playerIds.size(); i++) {
+            PlayerRankData data = source.getPlayerRank(playerIds.get(i));
+            assertNotNull(data, "player " + i);
+            assertEquals("player" + i, data.getPlayerName());
+            assertEquals(RANKS[i % RANKS.length], data.getRankName());
+            assertEquals(1577836800000L + i, data.getTimeGiven());
+        }
+    }
+
+    @Test
+    void startsWithTheMinimumTableSize() {
+        assertEquals(HEADER_SIZE + (long) MIN_CAPACITY * RECORD_SIZE, dataFile().length());
+    }
+
+    @Test
+    void growsInPlaceWhenTheTableFillsUp() {
+        List<UUID> playerIds = fill(2000);
+
+        // 2000 players exceed 0.7 of 1024 and of 2048 slots
+        assertEquals(HEADER_SIZE + 4096L * RECORD_SIZE, dataFile().length());
+        assertFalse(new File(dataFolder, "players.dat.resize").exists());
+        assertFalse(new File(dataFolder, "players.dat.tmp").exists());
+        assertAllPresent(storage, playerIds);
+
+        assertAllPresent(reopen(), playerIds);
+    }
+
+    @Test
+    void clearsTombstonesWithoutGrowing() {
+        List<UUID> kept = fill(100);
+        for (int round = 0; round < 20; round++) {
+            List<UUID> churn = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                UUID playerId = UUID.randomUUID();
+                churn.add(playerId);
+                storage.setPlayerRank(new PlayerRankData(playerId, "churn", "vip", 1L, 0L));
+            }
+            for (UUID playerId : churn) {
+                storage.removePlayerRank(playerId);
+            }
+        }
+
+        assertEquals(HEADER_SIZE + (long) MIN_CAPACITY * RECORD_SIZE, dataFile().length());
+        assertAllPresent(storage, kept);
+    }
+
+    @Test
+    void rankNamesSurviveRestartsAndResizes() {
+        List<UUID> playerIds = fill(1000);
+        MappedStorage reopened = reopen();
+
+        // New dictionary entries after a restart must not reuse existing ids
+        UUID helper = UUID.randomUUID();
+        reopened.setPlayerRank(new PlayerRankData(helper, "helper", "helper", 1L, 0L));
+        assertAllPresent(reopened, playerIds);
+        assertEquals("helper", reopened.getPlayerRank(helper).getRankName());
+
+        reopened = reopen();
+        assertEquals("helper", reopened.getPlayerRank(helper).getRankName());
+        assertAllPresent(reopened, playerIds);
+    }
+
+    @Test
+    void finishesAnInterruptedResizeOnStartup() throws IOException {
+        List<UUID> playerIds = fill(500);
+        storage.shutdown();
+
+        // Simulate a crash after the records were staged and the table was cleared
+        try (RandomAccessFile raf = new RandomAccessFile(dataFile(), "rw");
+             DataOutputStream staging = new DataOutputStream(new FileOutputStream(new File(dataFolder, "players.dat.resize")))) {
+            staging.writeInt(MIN_CAPACITY * 2);
+            staging.writeInt(playerIds.size());
+
+            byte[] record = new byte[RECORD_SIZE];
+            for (int slot = 0; slot < MIN_CAPACITY; slot++) {
+                long offset = HEADER_SIZE + (long) slot * RECORD_SIZE;
+                raf.seek(offset);
+                raf.readFully(record);
+                if (record[34] == 1) {
+                    staging.write(record);
+                }
+                raf.seek(offset + 34);
+                raf.write(0);
+            }
+
+            raf.seek(24);
+            raf.writeInt(1);
+        }
+
+        storage = open();
+
+        assertAllPresent(storage, playerIds);
+        assertFalse(new File(dataFolder, "players.dat.resize").exists());
+        assertEquals(HEADER_SIZE + 2048L * RECORD_SIZE, dataFile().length());
+        assertAllPresent(reopen(), playerIds);
+    }
+
+    @Test
+    void removeExpiredReturnsTheDeletedRows() {
+        long now = System.currentTimeMillis();
+        UUID expired = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        storage.setPlayerRank(new PlayerRankData(expired, "old", "vip", 1L, now - 1000L));
+        storage.setPlayerRank(new PlayerRankData(active, "new", "vip", 1L, now + 60000L));
+
+        List<PlayerRankData> removed = storage.removeExpired(now, 10);
+
+        assertEquals(1, removed.size());
+        assertEquals(expired, removed.get(0).getPlayerId());
+        assertNotNull(storage.getPlayerRank(active));
+    }
+}
\ No newline at end of file
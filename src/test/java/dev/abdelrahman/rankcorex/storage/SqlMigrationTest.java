@@ -0,0 +1,209 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import dev.abdelrahman.rankcorex.utils.TimeUtils;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrade of a v1 rankcorex_players table (text UUIDs and timestamps) to schema v2, on SQLite
+ */
+class SqlMigrationTest {
+
+    @TempDir
+    File dataFolder;
+
+    private Rankcorex plugin;
+    private SQLiteStorage storage;
+
+    @BeforeAll
+    static void loadDriver() throws ClassNotFoundException {
+        // 3.7.x drivers don't register with DriverManager on their own
+        Class.forName("org.sqlite.JDBC");
+    }
+
+    @BeforeEach
+    void setUp() {
+        YamlConfiguration config = new YamlConfiguration();
+        // Several migration steps even for a handful of rows
+        config.set("storage.migration-batch-size", 2);
+        plugin = TestSupport.mockPlugin(dataFolder, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (storage != null) {
+            storage.shutdown();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + new File(dataFolder, "players.db").getAbsolutePath());
+    }
+
+    private void createLegacyTable(String[][] rows) throws SQLException {
+        try (Connection connection = connect()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE rankcorex_players (" +
+                        "uuid VARCHAR(36) PRIMARY KEY, " +
+                        "username VARCHAR(16) NOT NULL, " +
+                        "rank_name VARCHAR(50) NOT NULL, " +
+                        "time_given VARCHAR(20) NOT NULL, " +
+                        "time_expires VARCHAR(20) NULL)");
+            }
+            try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO rankcorex_players VALUES (?, ?, ?, ?, ?)")) {
+                for (String[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        stmt.setString(i + 1, row[i]);
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private String schemaVersion() throws SQLException {
+        try (Connection connection = connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT meta_value FROM rankcorex_meta WHERE meta_key = 'schema_version'")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement stmt = connection.prepareStatement("SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Connection connection = connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.getInt(1);
+        }
+    }
+
+    private void awaitMigration() throws Exception {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!"2".equals(schemaVersion())) {
+            assertTrue(System.currentTimeMillis() < deadline, "migration did not finish");
+            Thread.sleep(20L);
+        }
+    }
+
+    private SQLiteStorage open() {
+        SQLiteStorage sqlite = new SQLiteStorage(plugin);
+        assertTrue(sqlite.initialize());
+        return sqlite;
+    }
+
+    @Test
+    void copiesV1RowsAndConvertsTimestamps() throws Exception {
+        UUID permanent = UUID.randomUUID();
+        UUID temporary = UUID.randomUUID();
+        UUID lapsed = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        String future = TimeUtils.formatTimestamp(System.currentTimeMillis() + 3600000L);
+
+        createLegacyTable(new String[][]{
+                {permanent.toString(), "Alice", "admin", "2024-01-01-12:00:00", null},
+                {temporary.toString(), "Bob", "vip", "2024-02-01-08:30:00", future},
+                {lapsed.toString(), "Carol", "mvp", "2019-06-01-00:00:00", "2020-01-01-00:00:00"},
+                {other.toString(), "Dave", "default", "2023-12-31-23:59:59", ""}
+        });
+
+        storage = open();
+        awaitMigration();
+
+        PlayerRankData alice = storage.getPlayerRank(permanent);
+        assertEquals("Alice", alice.getPlayerName());
+        assertEquals("admin", alice.getRankName());
+        assertEquals(TimeUtils.toEpochMillis("2024-01-01-12:00:00"), alice.getTimeGiven());
+        assertTrue(alice.isPermanent());
+
+        PlayerRankData bob = storage.getPlayerRank(temporary);
+        assertEquals("vip", bob.getRankName());
+        assertEquals(TimeUtils.toEpochMillis(future), bob.getTimeExpires());
+
+        assertTrue(storage.getPlayerRank(other).isPermanent());
+
+        // Lapsed v1 ranks are dropped instead of copied
+        assertNull(storage.getPlayerRank(lapsed));
+        assertEquals(3, countRows("rankcorex_players_v2"));
+
+        assertFalse(tableExists("rankcorex_players"));
+        assertTrue(tableExists("rankcorex_players_v1"));
+    }
+
+    @Test
+    void migratedDataSurvivesARestartWithoutMigratingAgain() throws Exception {
+        UUID playerId = UUID.randomUUID();
+        createLegacyTable(new String[][]{
+                {playerId.toString(), "Alice", "admin", "2024-01-01-12:00:00", null}
+        });
+
+        storage = open();
+        awaitMigration();
+        storage.setPlayerRank(new PlayerRankData(playerId, "Alice", "owner", 1700000000000L, 0L));
+        storage.shutdown();
+
+        storage = open();
+        assertEquals("owner", storage.getPlayerRank(playerId).getRankName());
+        assertEquals(1700000000000L, storage.getPlayerRank(playerId).getTimeGiven());
+        assertEquals(1, countRows("rankcorex_players_v1"));
+    }
+
+    @Test
+    void poolOpensTheFileInWalMode() throws Exception {
+        storage = open();
+
+        // Persisted in the file, so a fresh connection reports what the pool set up
+        try (Connection connection = connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            assertEquals("wal", rs.getString(1).toLowerCase());
+        }
+    }
+
+    @Test
+    void freshDatabaseStartsOnV2() throws Exception {
+        storage = open();
+
+        assertEquals("2", schemaVersion());
+        assertFalse(tableExists("rankcorex_players"));
+
+        long now = System.currentTimeMillis();
+        UUID expired = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        storage.setPlayerRank(new PlayerRankData(expired, "Old", "vip", now - 7200000L, now - 1000L));
+        storage.setPlayerRank(new PlayerRankData(active, "New", "vip", now, now + 3600000L));
+
+        List<PlayerRankData> removed = storage.removeExpired(now, 10);
+        assertEquals(1, removed.size());
+        assertEquals(expired, removed.get(0).getPlayerId());
+        assertEquals(now + 3600000L, storage.getPlayerRank(active).getTimeExpires());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package dev.abdelrahman.rankcorex.storage;
+
+import dev.abdelrahman.rankcorex.Rankcorex;
+import dev.abdelrahman.rankcorex.TestSupport;
+import dev.abdelrahman.rankcorex.models.PlayerRankData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindQueueTest {
+
+    @TempDir
+    File dataFolder;
+
+    private Rankcorex plugin;
+    private final List<List<PendingWrite>> written = new ArrayList<>();
+    private final List<Runnable> submitted = new ArrayList<>();
+    private boolean failWrites;
+
+    @BeforeEach
+    void setUp() {
+        plugin = TestSupport.mockPlugin(dataFolder, new YamlConfiguration());
+    }
+
+    private WriteBehindQueue queue(int maxBatchSize) {
+        return new WriteBehindQueue(plugin, batch -> {
+            if (failWrites) {
+                return false;
+            }
+            written.add(new ArrayList<>(batch));
+            return true;
+        }, submitted::add, 1000L, maxBatchSize);
+    }
+
+    private static PendingWrite set(UUID playerId, String rank) {
+        return PendingWrite.set(new PlayerRankData(playerId, "player", rank, 1L, 0L));
+    }
+
+    @Test
+    void keepsOnlyTheLatestChangePerPlayer() {
+        WriteBehindQueue queue = queue(100);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        queue.enqueue(set(first, "vip"));
+        queue.enqueue(set(first, "mvp"));
+        queue.enqueue(set(second, "vip"));
+        queue.enqueue(PendingWrite.remove(second));
+
+        assertEquals(2, queue.size());
+        assertEquals("mvp", queue.getPending(first).getData().getRankName());
+        assertTrue(queue.getPending(second).isRemoval());
+
+        queue.flush();
+
+        assertEquals(1, written.size());
+        assertEquals(2, written.get(0).size());
+        assertEquals(0, queue.size());
+        assertNull(queue.getPending(first));
+    }
+
+    @Test
+    void flushesInBatchesOfAtMostMaxBatchSize() {
+        WriteBehindQueue queue = queue(2);
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(set(UUID.randomUUID(), "vip"));
+        }
+
+        queue.flush();
+
+        List<Integer> sizes = new ArrayList<>();
+        for (List<PendingWrite> batch : written) {
+            sizes.add(batch.size());
+        }
+        assertEquals(Arrays.asList(2, 2, 1), sizes);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void failedBatchStaysQueuedForTheNextFlush() {
+        WriteBehindQueue queue = queue(100);
+        PendingWrite write = set(UUID.randomUUID(), "vip");
+        queue.enqueue(write);
+
+        failWrites = true;
+        queue.flush();
+        assertEquals(1, queue.size());
+        assertFalse(write.getWritten().isDone());
+
+        failWrites = false;
+        queue.flush();
+        assertEquals(0, queue.size());
+        assertTrue(write.getWritten().isDone());
+    }
+
+    @Test
+    void replacedChangeCompletesWhenTheNewerOneIsWritten() {
+        WriteBehindQueue queue = queue(100);
+        UUID playerId = UUID.randomUUID();
+        PendingWrite older = set(playerId, "vip");
+        PendingWrite newer = set(playerId, "mvp");
+
+        queue.enqueue(older);
+        queue.enqueue(newer);
+        assertFalse(older.getWritten().isDone());
+
+        queue.flush();
+
+        assertTrue(older.getWritten().isDone());
+        assertTrue(newer.getWritten().isDone());
+        assertEquals("mvp", written.get(0).get(0).getData().getRankName());
+    }
+
+    @Test
+    void flushNowSchedulesOneFlushOnTheExecutor() {
+        WriteBehindQueue queue = queue(100);
+        UUID playerId = UUID.randomUUID();
+        queue.enqueue(set(playerId, "vip"));
+
+        CompletableFuture<Void> stored = queue.flushNow(playerId);
+        queue.flushNow(playerId);
+        assertEquals(1, submitted.size());
+        assertFalse(stored.isDone());
+
+        submitted.get(0).run();
+        assertTrue(stored.isDone());
+        assertTrue(queue.flushNow(playerId).isDone());
+    }
+
+    @Test
+    void reachingMaxBatchSizeRequestsAFlush() {
+        WriteBehindQueue queue = queue(3);
+        queue.enqueue(set(UUID.randomUUID(), "vip"));
+        queue.enqueue(set(UUID.randomUUID(), "vip"));
+        assertTrue(submitted.isEmpty());
+
+        queue.enqueue(set(UUID.randomUUID(), "vip"));
+        assertEquals(1, submitted.size());
+    }
+
+    @Test
+    void shutdownFailsChangesThatCouldNotBeWritten() {
+        WriteBehindQueue queue = queue(100);
+        PendingWrite write = set(UUID.randomUUID(), "vip");
+        queue.enqueue(write);
+
+        failWrites = true;
+        queue.shutdown();
+
+        assertTrue(write.getWritten().isCompletedExceptionally());
+    }
+}
\ No newline at end of file
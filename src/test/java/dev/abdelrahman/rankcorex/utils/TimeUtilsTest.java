@@ -0,0 +1,77 @@
+package dev.abdelrahman.rankcorex.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeUtilsTest {
+
+    private static long local(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void readsEpochMillisStoredAsNumbersOrText() {
+        assertEquals(1700000000000L, TimeUtils.parseStoredTimestamp(1700000000000L, false));
+        assertEquals(1700000000000L, TimeUtils.parseStoredTimestamp(1700000000000L, true));
+        assertEquals(1700000000000L, TimeUtils.parseStoredTimestamp("1700000000000", true));
+        assertEquals(1700000000000L, TimeUtils.parseStoredTimestamp(" 1700000000000 ", false));
+        assertEquals(42L, TimeUtils.parseStoredTimestamp(42, false));
+    }
+
+    @Test
+    void readsLegacyFormattedTimestamps() {
+        assertEquals(local(2024, 1, 31, 23, 5, 9), TimeUtils.parseStoredTimestamp("2024-01-31-23:05:09", false));
+        assertEquals(local(2024, 1, 31, 23, 5, 9), TimeUtils.parseStoredTimestamp("2024-01-31-23:05:09", true));
+    }
+
+    @Test
+    void missingValuesArePermanent() {
+        assertEquals(0L, TimeUtils.parseStoredTimestamp(null, true));
+        assertEquals(0L, TimeUtils.parseStoredTimestamp("", true));
+        assertEquals(0L, TimeUtils.parseStoredTimestamp("   ", true));
+        assertEquals(0L, TimeUtils.parseStoredTimestamp(-5L, true));
+        assertEquals(0L, TimeUtils.parseStoredTimestamp("-5", false));
+    }
+
+    @Test
+    void unreadableExpiryCountsAsExpired() {
+        assertEquals(1L, TimeUtils.parseStoredTimestamp("next tuesday", true));
+        assertTrue(TimeUtils.hasExpired(TimeUtils.parseStoredTimestamp("next tuesday", true)));
+        assertEquals(0L, TimeUtils.parseStoredTimestamp("next tuesday", false));
+    }
+
+    @Test
+    void formatAndParseRoundTripToTheSecond() {
+        long timestamp = local(2025, 6, 15, 8, 0, 30);
+        String formatted = TimeUtils.formatTimestamp(timestamp + 999L);
+
+        assertEquals("2025-06-15-08:00:30", formatted);
+        assertEquals(timestamp, TimeUtils.toEpochMillis(formatted));
+        assertNull(TimeUtils.formatTimestamp(0L));
+        assertEquals(0L, TimeUtils.toEpochMillis("2025-13-45-99:99:99"));
+    }
+
+    @Test
+    void zeroNeverExpires() {
+        assertFalse(TimeUtils.hasExpired(0L));
+        assertTrue(TimeUtils.hasExpired(System.currentTimeMillis() - 1L));
+        assertFalse(TimeUtils.hasExpired(System.currentTimeMillis() + 60000L));
+    }
+
+    @Test
+    void parsesDurations() {
+        assertEquals(30L, TimeUtils.parseTime("30s"));
+        assertEquals(1800L, TimeUtils.parseTime("30m"));
+        assertEquals(7200L, TimeUtils.parseTime("2h"));
+        assertEquals(604800L, TimeUtils.parseTime("7D"));
+        assertEquals(2592000L, TimeUtils.parseTime("1mo"));
+        assertEquals(31536000L, TimeUtils.parseTime("1y"));
+        assertEquals(-1L, TimeUtils.parseTime("permanent"));
+        assertEquals(-1L, TimeUtils.parseTime(null));
+        assertEquals(0L, TimeUtils.getFutureTimestamp(-1L));
+    }
+}
\ No newline at end of file